@@ -0,0 +1,69 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.api;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A breakdown of the time taken to start a {@link KafkaCluster}, by phase of startup.
+ * Phases are listed in the order in which they began. A phase which occurred more than once, for example once per
+ * broker, is reported as the sum of its durations. Phases may run concurrently, so their durations need not sum to
+ * the {@link #getTotal() total}.
+ */
+public final class ClusterStartupReport {
+
+    private static final ClusterStartupReport EMPTY = new ClusterStartupReport(Map.of(), Duration.ZERO);
+
+    private final Map<String, Duration> phases;
+    private final Duration total;
+
+    /**
+     * Instantiates a new cluster startup report.
+     *
+     * @param phases the duration of each phase, in the order in which the phases began
+     * @param total the elapsed time from the start of the first phase to the end of the last
+     */
+    public ClusterStartupReport(Map<String, Duration> phases, Duration total) {
+        this.phases = Collections.unmodifiableMap(new LinkedHashMap<>(Objects.requireNonNull(phases)));
+        this.total = Objects.requireNonNull(total);
+    }
+
+    /**
+     * Gets the report of a cluster which has not been started, or which does not record its startup.
+     *
+     * @return the empty report
+     */
+    public static ClusterStartupReport empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Gets the duration of each phase.
+     *
+     * @return the duration of each phase, in the order in which the phases began
+     */
+    public Map<String, Duration> getPhases() {
+        return phases;
+    }
+
+    /**
+     * Gets the total time taken to start the cluster.
+     *
+     * @return the elapsed time from the start of the first phase to the end of the last
+     */
+    public Duration getTotal() {
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "ClusterStartupReport{total=" + total + ", phases=" + phases + '}';
+    }
+}
@@ -67,4 +67,12 @@ public interface KafkaCluster extends AutoCloseable {
      * @return mutable configuration map
      */
     Map<String, Object> getKafkaClientConfiguration(String user, String password);
+
+    /**
+     * Gets the breakdown of the time taken to start this cluster.
+     * @return the startup report, which is empty if the cluster has not been started or does not record its startup
+     */
+    default ClusterStartupReport getStartupReport() {
+        return ClusterStartupReport.empty();
+    }
 }
@@ -47,4 +47,28 @@ public interface KafkaClusterProvisioningStrategy {
     KafkaCluster create(List<Annotation> constraints,
                         Class<? extends KafkaCluster> declarationType);
 
+    /**
+     * Prepare to provision a cluster with the given configuration, which is expected to be requested later in the
+     * session, for example by fetching resources it needs in the background. This must not block.
+     * The default implementation does nothing.
+     * @param constraints The {@link KafkaClusterConstraint}-annotated constraint annotations
+     * @param declarationType The specific subtype of {@link KafkaCluster} to be created.
+     */
+    default void prepare(List<Annotation> constraints,
+                         Class<? extends KafkaCluster> declarationType) {
+    }
+
+    /**
+     * Record the time actually taken to provision a cluster created by this strategy, so that the strategy can
+     * refine its {@link #estimatedProvisioningTimeMs(List, Class) estimates}.
+     * The default implementation does nothing.
+     * @param constraints The constraints the cluster was created with.
+     * @param declarationType The subtype the cluster was created for.
+     * @param provisioningTime The time taken to create and {@link KafkaCluster#start() start} the cluster.
+     */
+    default void recordProvisioningTime(List<Annotation> constraints,
+                                        Class<? extends KafkaCluster> declarationType,
+                                        Duration provisioningTime) {
+    }
+
 }
@@ -0,0 +1,23 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.api;
+
+/**
+ * A {@link KafkaCluster} whose state can be reset, so that a started cluster can be
+ * handed to another test without leaking the state created by previous tests,
+ * and without the cost of restarting the brokers.
+ */
+public interface ResettableKafkaCluster extends KafkaCluster {
+
+    /**
+     * Resets the state of the cluster.
+     * All non-internal topics, consumer groups, ACLs, SCRAM credentials, dynamic broker and topic configs and
+     * client quotas are deleted.
+     * This method returns once every broker in the cluster has observed the deletions.
+     * The cluster must have been {@link #start() start}ed.
+     */
+    void reset();
+}
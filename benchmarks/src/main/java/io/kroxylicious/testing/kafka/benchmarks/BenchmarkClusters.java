@@ -0,0 +1,109 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+import org.apache.kafka.common.security.auth.SecurityProtocol;
+
+import io.kroxylicious.testing.kafka.common.KafkaClusterConfig;
+import io.kroxylicious.testing.kafka.common.KeytoolCertificateGenerator;
+
+/**
+ * Builds the configurations of the clusters benchmarked, from the values of the benchmarks' parameters.
+ */
+final class BenchmarkClusters {
+
+    /**
+     * The value of the controller parameter for a KRaft cluster.
+     */
+    static final String KRAFT = "KRAFT";
+
+    /**
+     * The value of the controller parameter for a ZooKeeper-based cluster.
+     */
+    static final String ZOOKEEPER = "ZOOKEEPER";
+
+    // The client configuration of a SASL cluster uses the first user's name as its password
+    private static final Map<String, String> USERS = Map.of("guest", "guest");
+
+    private BenchmarkClusters() {
+    }
+
+    /**
+     * Builds the configuration of a cluster.
+     *
+     * @param brokers the number of brokers
+     * @param controller either {@link #KRAFT} or {@link #ZOOKEEPER}
+     * @param securityProtocol the name of the {@link SecurityProtocol} of the client listener
+     * @return the cluster config
+     */
+    static KafkaClusterConfig config(int brokers, String controller, String securityProtocol) {
+        var protocol = SecurityProtocol.forName(securityProtocol);
+        var builder = KafkaClusterConfig.builder()
+                .brokersNum(brokers)
+                .kraftMode(parseController(controller))
+                .securityProtocol(protocol.name);
+        if (protocol == SecurityProtocol.SASL_PLAINTEXT || protocol == SecurityProtocol.SASL_SSL) {
+            builder.saslMechanism("PLAIN").users(USERS);
+        }
+        if (protocol == SecurityProtocol.SSL || protocol == SecurityProtocol.SASL_SSL) {
+            try {
+                builder.brokerKeytoolCertificateGenerator(new KeytoolCertificateGenerator());
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Gets endpoints with fixed ports, for generating configuration without starting a cluster.
+     *
+     * @return the endpoints
+     */
+    static KafkaClusterConfig.KafkaEndpoints fixedEndpoints() {
+        return new KafkaClusterConfig.KafkaEndpoints() {
+            @Override
+            public EndpointPair getClientEndpoint(int brokerId) {
+                return endpoint(9092 + brokerId);
+            }
+
+            @Override
+            public EndpointPair getAnonEndpoint(int brokerId) {
+                return endpoint(19092 + brokerId);
+            }
+
+            @Override
+            public EndpointPair getInterBrokerEndpoint(int brokerId) {
+                return endpoint(29092 + brokerId);
+            }
+
+            @Override
+            public EndpointPair getControllerEndpoint(int brokerId) {
+                return endpoint(39092 + brokerId);
+            }
+
+            private EndpointPair endpoint(int port) {
+                return EndpointPair.builder().bind(new Endpoint("0.0.0.0", port)).connect(new Endpoint("localhost", port)).build();
+            }
+        };
+    }
+
+    private static boolean parseController(String controller) {
+        switch (controller) {
+            case KRAFT:
+                return true;
+            case ZOOKEEPER:
+                return false;
+            default:
+                throw new IllegalArgumentException("Unknown controller " + controller);
+        }
+    }
+}
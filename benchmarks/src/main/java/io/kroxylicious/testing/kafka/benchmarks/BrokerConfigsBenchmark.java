@@ -0,0 +1,70 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.kroxylicious.testing.kafka.common.KafkaClusterConfig;
+
+/**
+ * Measures the cost of generating the configuration of each node of a cluster with
+ * {@link KafkaClusterConfig#getBrokerConfigs(java.util.function.Supplier)}, including the generation of any
+ * TLS key and trust stores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BrokerConfigsBenchmark {
+
+    @Param({ "1", "3", "5" })
+    int brokers;
+
+    @Param({ BenchmarkClusters.KRAFT, BenchmarkClusters.ZOOKEEPER })
+    String controller;
+
+    @Param({ "PLAINTEXT", "SASL_PLAINTEXT", "SSL" })
+    String securityProtocol;
+
+    private KafkaClusterConfig config;
+    private KafkaClusterConfig.KafkaEndpoints endpoints;
+
+    /**
+     * Configures the cluster.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        config = BenchmarkClusters.config(brokers, controller, securityProtocol);
+        endpoints = BenchmarkClusters.fixedEndpoints();
+    }
+
+    /**
+     * Generates the configuration of each node.
+     *
+     * @return the node configs
+     */
+    @Benchmark
+    public List<KafkaClusterConfig.ConfigHolder> getBrokerConfigs() {
+        return config.getBrokerConfigs(() -> endpoints).collect(Collectors.toList());
+    }
+}
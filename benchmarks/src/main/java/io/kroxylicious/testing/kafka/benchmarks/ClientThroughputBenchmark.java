@@ -0,0 +1,153 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.benchmarks;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.kroxylicious.testing.kafka.invm.InVMKafkaCluster;
+
+/**
+ * Measures the throughput, in records per second, of producing to and consuming from an {@link InVMKafkaCluster},
+ * using clients configured from {@link InVMKafkaCluster#getKafkaClientConfiguration()}, as the clients injected
+ * by the extension are.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ClientThroughputBenchmark {
+
+    private static final String TOPIC = "benchmark";
+    private static final int BATCH_SIZE = 1000;
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+
+    @Param({ "1", "3" })
+    int brokers;
+
+    @Param({ BenchmarkClusters.KRAFT, BenchmarkClusters.ZOOKEEPER })
+    String controller;
+
+    @Param({ "PLAINTEXT", "SASL_PLAINTEXT", "SSL" })
+    String securityProtocol;
+
+    @Param({ "100", "1024" })
+    int recordSize;
+
+    private InVMKafkaCluster cluster;
+    private Producer<byte[], byte[]> producer;
+    private Consumer<byte[], byte[]> consumer;
+    private byte[] value;
+
+    /**
+     * Starts the cluster, creates the topic, with a partition per broker, and the clients.
+     *
+     * @throws Exception if the topic can't be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        cluster = new InVMKafkaCluster(BenchmarkClusters.config(brokers, controller, securityProtocol));
+        cluster.start();
+        try (var admin = Admin.create(cluster.getKafkaClientConfiguration())) {
+            admin.createTopics(List.of(new NewTopic(TOPIC, brokers, (short) 1))).all().get(30, TimeUnit.SECONDS);
+        }
+
+        Map<String, Object> producerConfig = new HashMap<>(cluster.getKafkaClientConfiguration());
+        producerConfig.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerConfig.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producer = new KafkaProducer<>(producerConfig);
+
+        Map<String, Object> consumerConfig = new HashMap<>(cluster.getKafkaClientConfiguration());
+        consumerConfig.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        consumerConfig.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        consumerConfig.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        consumer = new KafkaConsumer<>(consumerConfig);
+        // Assigning the partitions directly avoids the benchmark depending on group coordination
+        consumer.assign(IntStream.range(0, brokers).mapToObj(partition -> new TopicPartition(TOPIC, partition)).collect(Collectors.toList()));
+
+        value = new byte[recordSize];
+        ThreadLocalRandom.current().nextBytes(value);
+    }
+
+    /**
+     * Closes the clients and the cluster.
+     *
+     * @throws Exception if the cluster can't be closed
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        consumer.close();
+        producer.close();
+        cluster.close();
+    }
+
+    /**
+     * Produces a batch of records, returning once they have all been acknowledged.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void produce() {
+        sendBatch();
+    }
+
+    /**
+     * Produces a batch of records, then consumes until as many records have been received.
+     *
+     * @return the number of records consumed
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int produceAndConsume() {
+        sendBatch();
+        int consumed = 0;
+        while (consumed < BATCH_SIZE) {
+            consumed += consumer.poll(POLL_TIMEOUT).count();
+        }
+        return consumed;
+    }
+
+    private void sendBatch() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            producer.send(new ProducerRecord<>(TOPIC, value));
+        }
+        producer.flush();
+    }
+}
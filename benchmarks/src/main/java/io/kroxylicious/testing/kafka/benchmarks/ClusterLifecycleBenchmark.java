@@ -0,0 +1,126 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.kroxylicious.testing.kafka.common.KafkaClusterConfig;
+import io.kroxylicious.testing.kafka.invm.InVMKafkaCluster;
+
+/**
+ * Measures the latency of starting and of closing an {@link InVMKafkaCluster}, across topologies.
+ * Each invocation uses a fresh cluster, so the latencies are measured as single shots.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ClusterLifecycleBenchmark {
+
+    /**
+     * The topology of the cluster.
+     */
+    public abstract static class Topology {
+        @Param({ "1", "3", "5" })
+        int brokers;
+
+        @Param({ BenchmarkClusters.KRAFT, BenchmarkClusters.ZOOKEEPER })
+        String controller;
+
+        @Param({ "PLAINTEXT", "SASL_PLAINTEXT", "SSL" })
+        String securityProtocol;
+
+        KafkaClusterConfig config() {
+            return BenchmarkClusters.config(brokers, controller, securityProtocol);
+        }
+    }
+
+    /**
+     * A cluster which has been configured, but not yet created or started.
+     */
+    @State(Scope.Thread)
+    public static class Unstarted extends Topology {
+        KafkaClusterConfig config;
+        InVMKafkaCluster cluster;
+
+        /**
+         * Configures the cluster.
+         */
+        @Setup(Level.Invocation)
+        public void setUp() {
+            config = config();
+        }
+
+        /**
+         * Closes the cluster started by the invocation.
+         *
+         * @throws Exception if the cluster can't be closed
+         */
+        @TearDown(Level.Invocation)
+        public void tearDown() throws Exception {
+            if (cluster != null) {
+                cluster.close();
+                cluster = null;
+            }
+        }
+    }
+
+    /**
+     * A cluster which has been started.
+     */
+    @State(Scope.Thread)
+    public static class Started extends Topology {
+        InVMKafkaCluster cluster;
+
+        /**
+         * Starts the cluster.
+         */
+        @Setup(Level.Invocation)
+        public void setUp() {
+            cluster = new InVMKafkaCluster(config());
+            cluster.start();
+        }
+    }
+
+    /**
+     * Creates and starts a cluster, returning once all its brokers are ready.
+     *
+     * @param state the unstarted cluster
+     * @return the started cluster
+     */
+    @Benchmark
+    public InVMKafkaCluster start(Unstarted state) {
+        state.cluster = new InVMKafkaCluster(state.config);
+        state.cluster.start();
+        return state.cluster;
+    }
+
+    /**
+     * Closes a started cluster.
+     *
+     * @param state the started cluster
+     * @throws Exception if the cluster can't be closed
+     */
+    @Benchmark
+    public void close(Started state) throws Exception {
+        state.cluster.close();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.common;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.security.auth.x500.X500Principal;
+
+/**
+ * A certificate authority which lasts for the lifetime of the JVM, issuing certificates for test clusters and clients.
+ * Generating keys dominates the cost of creating certificates, so issued certificates are cached, and an identical
+ * request for a certificate returns the same key and certificate.
+ */
+final class CertificateAuthority {
+
+    private static final X500Principal NAME = new X500Principal("CN=Kroxylicious Test CA, OU=Dev, O=Kroxylicious.io, C=US");
+    private static final Duration VALIDITY = Duration.ofDays(365);
+
+    private static final Map<Tls.KeyAlgorithm, CertificateAuthority> SESSION = new EnumMap<>(Tls.KeyAlgorithm.class);
+
+    private final Tls.KeyAlgorithm keyAlgorithm;
+    private final KeyPair keyPair;
+    private final X509Certificate certificate;
+    private final Map<Subject, KeyStore.PrivateKeyEntry> issued = new ConcurrentHashMap<>();
+
+    private CertificateAuthority(Tls.KeyAlgorithm keyAlgorithm) throws GeneralSecurityException {
+        this.keyAlgorithm = keyAlgorithm;
+        keyPair = generateKeyPair();
+        certificate = X509CertificateGenerator.generate(NAME, keyPair.getPrivate(), NAME, keyPair.getPublic(), List.of(), true, VALIDITY);
+    }
+
+    /**
+     * Gets the certificate authority of this JVM for the given key algorithm, creating it if necessary.
+     * Each algorithm has its own authority, so that a certificate is signed using the same algorithm as its key.
+     *
+     * @param keyAlgorithm the algorithm of the authority's key and of the keys it issues
+     * @return the certificate authority
+     * @throws GeneralSecurityException if the certificate authority cannot be created
+     */
+    static synchronized CertificateAuthority session(Tls.KeyAlgorithm keyAlgorithm) throws GeneralSecurityException {
+        var authority = SESSION.get(keyAlgorithm);
+        if (authority == null) {
+            authority = new CertificateAuthority(keyAlgorithm);
+            SESSION.put(keyAlgorithm, authority);
+        }
+        return authority;
+    }
+
+    /**
+     * Gets the certificate authority's own certificate.
+     *
+     * @return the certificate
+     */
+    X509Certificate getCertificate() {
+        return certificate;
+    }
+
+    /**
+     * Issues a certificate for the given subject, reusing the key and certificate of an earlier identical request.
+     *
+     * @param subject the subject
+     * @param dnsNames DNS names for the subject alternative name extension
+     * @return the private key, with the chain of the issued certificate and that of this authority
+     * @throws GeneralSecurityException if the certificate cannot be issued
+     */
+    KeyStore.PrivateKeyEntry issue(X500Principal subject, List<String> dnsNames) throws GeneralSecurityException {
+        var key = new Subject(subject, List.copyOf(dnsNames));
+        var entry = issued.get(key);
+        if (entry != null) {
+            return entry;
+        }
+        // Concurrent identical requests may each generate a key, but only the first is kept, so that all callers agree
+        var generated = generate(key);
+        var existing = issued.putIfAbsent(key, generated);
+        return existing != null ? existing : generated;
+    }
+
+    private KeyStore.PrivateKeyEntry generate(Subject subject) throws GeneralSecurityException {
+        var subjectKeyPair = generateKeyPair();
+        var issuedCertificate = X509CertificateGenerator.generate(NAME, keyPair.getPrivate(), subject.name(), subjectKeyPair.getPublic(), subject.dnsNames(), false,
+                VALIDITY);
+        return new KeyStore.PrivateKeyEntry(subjectKeyPair.getPrivate(), new Certificate[]{ issuedCertificate, certificate });
+    }
+
+    private KeyPair generateKeyPair() throws GeneralSecurityException {
+        KeyPairGenerator keyPairGenerator;
+        switch (keyAlgorithm) {
+            case RSA_2048 -> {
+                keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+                keyPairGenerator.initialize(2048);
+            }
+            case EC_P256 -> {
+                keyPairGenerator = KeyPairGenerator.getInstance("EC");
+                keyPairGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+            }
+            case ED25519 -> keyPairGenerator = KeyPairGenerator.getInstance("Ed25519");
+            default -> throw new IllegalArgumentException("Unsupported key algorithm " + keyAlgorithm);
+        }
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    private record Subject(X500Principal name, List<String> dnsNames) {}
+}
@@ -0,0 +1,28 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.common;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event recording a phase of the startup of a test cluster.
+ */
+@Name("io.kroxylicious.testing.ClusterStartupPhase")
+@Label("Kafka Cluster Startup Phase")
+@Description("A phase of the startup of a test Kafka cluster")
+@Category({ "Kroxylicious", "Testing" })
+class ClusterStartupPhaseEvent extends Event {
+
+    @Label("Cluster Type")
+    String clusterType;
+
+    @Label("Phase")
+    String phase;
+}
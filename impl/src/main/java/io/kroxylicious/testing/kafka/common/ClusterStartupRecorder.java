@@ -0,0 +1,98 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.common;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.kroxylicious.testing.kafka.api.ClusterStartupReport;
+
+/**
+ * Records the duration of the phases of a cluster's startup, for its {@link ClusterStartupReport}.
+ * Each phase is also emitted as a JFR event named {@code io.kroxylicious.testing.ClusterStartupPhase}.
+ * Phases may be recorded concurrently.
+ */
+public final class ClusterStartupRecorder {
+
+    private final String clusterType;
+    // Guarded by this
+    private final Map<String, Duration> phases = new LinkedHashMap<>();
+    private long firstStartNanos;
+    private long lastEndNanos;
+
+    /**
+     * Instantiates a new cluster startup recorder.
+     *
+     * @param clusterType the type of the cluster, which identifies its events
+     */
+    public ClusterStartupRecorder(String clusterType) {
+        this.clusterType = clusterType;
+    }
+
+    /**
+     * Starts timing a phase, which ends when the returned {@link Phase} is closed.
+     *
+     * @param name the name of the phase
+     * @return the phase
+     */
+    public Phase phase(String name) {
+        return new Phase(name);
+    }
+
+    /**
+     * Gets the report of the phases recorded so far.
+     *
+     * @return the report
+     */
+    public synchronized ClusterStartupReport report() {
+        return phases.isEmpty() ? ClusterStartupReport.empty() : new ClusterStartupReport(phases, Duration.ofNanos(lastEndNanos - firstStartNanos));
+    }
+
+    private synchronized void begun(String name, long startNanos) {
+        if (phases.isEmpty()) {
+            firstStartNanos = startNanos;
+            lastEndNanos = startNanos;
+        }
+        // Reserves the phase's place in the order in which phases began
+        phases.putIfAbsent(name, Duration.ZERO);
+    }
+
+    private synchronized void ended(String name, long startNanos, long endNanos) {
+        phases.merge(name, Duration.ofNanos(endNanos - startNanos), Duration::plus);
+        if (endNanos - lastEndNanos > 0) {
+            lastEndNanos = endNanos;
+        }
+    }
+
+    /**
+     * A phase being timed.
+     */
+    public final class Phase implements AutoCloseable {
+
+        private final String name;
+        private final long startNanos;
+        private final ClusterStartupPhaseEvent event = new ClusterStartupPhaseEvent();
+
+        private Phase(String name) {
+            this.name = name;
+            event.clusterType = clusterType;
+            event.phase = name;
+            event.begin();
+            startNanos = System.nanoTime();
+            begun(name, startNanos);
+        }
+
+        /**
+         * Ends the phase.
+         */
+        @Override
+        public void close() {
+            ended(name, startNanos, System.nanoTime());
+            event.commit();
+        }
+    }
+}
@@ -6,12 +6,17 @@
 package io.kroxylicious.testing.kafka.common;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Functions for creating constraint instances without reflecting on annotated members.
@@ -84,7 +89,47 @@ public class ConstraintUtils {
      * @return the kraft cluster
      */
     public static KRaftCluster kraftCluster(int numControllers) {
-        return mkAnnotation(KRaftCluster.class, Map.of("numControllers", numControllers));
+        return kraftCluster(numControllers, false);
+    }
+
+    /**
+     * Creates a constraint to supply a kraft based cluster, optionally with dedicated controller-only nodes.
+     *
+     * @param numControllers the number of controllers
+     * @param dedicatedControllers whether the controllers run on dedicated controller-only nodes
+     * @return the kraft cluster
+     */
+    public static KRaftCluster kraftCluster(int numControllers, boolean dedicatedControllers) {
+        return mkAnnotation(KRaftCluster.class, Map.of("numControllers", numControllers, "dedicatedControllers", dedicatedControllers));
+    }
+
+    /**
+     * Creates a constraint to supply a cluster which stores its logs on the given medium.
+     *
+     * @param medium the storage medium
+     * @return the log storage
+     */
+    public static LogStorage logStorage(LogStorage.Medium medium) {
+        return mkAnnotation(LogStorage.class, Map.of("value", medium));
+    }
+
+    /**
+     * Creates a constraint to supply a cluster that uses TLS, with RSA keys.
+     *
+     * @return the tls
+     */
+    public static Tls tls() {
+        return tls(Tls.KeyAlgorithm.RSA_2048);
+    }
+
+    /**
+     * Creates a constraint to supply a cluster that uses TLS, with keys of the given algorithm.
+     *
+     * @param keyAlgorithm the key algorithm
+     * @return the tls
+     */
+    public static Tls tls(Tls.KeyAlgorithm keyAlgorithm) {
+        return mkAnnotation(Tls.class, Map.of("keyAlgorithm", keyAlgorithm));
     }
 
     /**
@@ -98,6 +143,50 @@ public class ConstraintUtils {
         return mkAnnotation(ZooKeeperCluster.class, Map.of());
     }
 
+    /**
+     * Gets the canonical form of a constraint: a string naming the annotation type and the value of each of its
+     * members, in member name order. Equivalent constraints have the same canonical form, whether they were obtained
+     * reflectively from a declaration or created by this class.
+     *
+     * @param annotation the constraint
+     * @return the canonical form
+     */
+    public static String canonicalForm(Annotation annotation) {
+        Class<? extends Annotation> annotationType = annotation.annotationType();
+        return Arrays.stream(annotationType.getDeclaredMethods())
+                .filter(method -> method.getParameterCount() == 0 && !method.isSynthetic())
+                .sorted(Comparator.comparing(Method::getName))
+                .map(method -> method.getName() + "=" + canonicalValue(memberValue(annotation, method)))
+                .collect(Collectors.joining(", ", "@" + annotationType.getName() + "(", ")"));
+    }
+
+    private static Object memberValue(Annotation annotation, Method member) {
+        try {
+            member.setAccessible(true);
+            Object value = member.invoke(annotation);
+            // Constraints created by this class only carry the members they were given
+            return value != null ? value : member.getDefaultValue();
+        }
+        catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Unable to read member " + member.getName() + " of " + annotation, e);
+        }
+    }
+
+    private static String canonicalValue(Object value) {
+        if (value instanceof Annotation) {
+            return canonicalForm((Annotation) value);
+        }
+        else if (value != null && value.getClass().isArray()) {
+            return IntStream.range(0, Array.getLength(value))
+                    .mapToObj(index -> canonicalValue(Array.get(value, index)))
+                    .collect(Collectors.joining(", ", "[", "]"));
+        }
+        else if (value instanceof Class) {
+            return ((Class<?>) value).getName();
+        }
+        return String.valueOf(value);
+    }
+
     private static <A extends Annotation> A mkAnnotation(Class<A> annoType, Map<String, Object> members) {
         Objects.requireNonNull(members);
         for (String member : members.keySet()) {
@@ -28,4 +28,12 @@ public @interface KRaftCluster {
      */
     public int numControllers() default 1;
 
+    /**
+     * Whether the controllers run on dedicated controller-only nodes.
+     * If false the first {@link #numControllers()} nodes act as both broker and controller,
+     * with controller-only nodes added only if there are more controllers than brokers.
+     * @return true if the controllers run on dedicated nodes
+     */
+    public boolean dedicatedControllers() default false;
+
 }
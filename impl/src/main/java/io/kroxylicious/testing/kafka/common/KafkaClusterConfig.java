@@ -84,6 +84,18 @@ public class KafkaClusterConfig {
     @Builder.Default
     private Integer kraftControllers = 1;
 
+    /**
+     * if true, the kraft controllers run on dedicated controller-only nodes, rather than also acting as brokers.
+     */
+    @Builder.Default
+    private Boolean dedicatedControllers = false;
+
+    /**
+     * the medium on which the cluster stores its logs.
+     */
+    @Builder.Default
+    private LogStorage.Medium logStorage = LogStorage.Medium.DISK;
+
     @Builder.Default
     private String kafkaKraftClusterId = Uuid.randomUuid().toString();
     /**
@@ -101,6 +113,7 @@ public class KafkaClusterConfig {
             BrokerConfig.class,
             BrokerConfig.List.class,
             KRaftCluster.class,
+            LogStorage.class,
             Tls.class,
             SaslPlainAuth.class,
             ZooKeeperCluster.class,
@@ -134,6 +147,7 @@ public class KafkaClusterConfig {
             if (annotation instanceof KRaftCluster) {
                 builder.kraftMode(true);
                 builder.kraftControllers(((KRaftCluster) annotation).numControllers());
+                builder.dedicatedControllers(((KRaftCluster) annotation).dedicatedControllers());
             }
             if (annotation instanceof ZooKeeperCluster) {
                 builder.kraftMode(false);
@@ -141,7 +155,7 @@ public class KafkaClusterConfig {
             if (annotation instanceof Tls) {
                 tls = true;
                 try {
-                    builder.brokerKeytoolCertificateGenerator(new KeytoolCertificateGenerator());
+                    builder.brokerKeytoolCertificateGenerator(new KeytoolCertificateGenerator(((Tls) annotation).keyAlgorithm()));
                 }
                 catch (IOException e) {
                     throw new RuntimeException(e);
@@ -158,6 +172,9 @@ public class KafkaClusterConfig {
             if (annotation instanceof ClusterId) {
                 builder.kafkaKraftClusterId(((ClusterId) annotation).value());
             }
+            if (annotation instanceof LogStorage) {
+                builder.logStorage(((LogStorage) annotation).value());
+            }
             if (annotation instanceof Version) {
                 builder.kafkaVersion(((Version) annotation).value());
             }
@@ -175,18 +192,23 @@ public class KafkaClusterConfig {
     }
 
     /**
-     * Gets broker configs.
+     * Gets the configs of each node in the cluster: its brokers, followed by any controller-only nodes.
      *
      * @param endPointConfigSupplier the end point config supplier
-     * @return the broker configs
+     * @return the node configs
      */
     public Stream<ConfigHolder> getBrokerConfigs(Supplier<KafkaEndpoints> endPointConfigSupplier) {
         List<ConfigHolder> properties = new ArrayList<>();
         KafkaEndpoints kafkaEndpoints = endPointConfigSupplier.get();
-        for (int brokerNum = 0; brokerNum < brokersNum; brokerNum++) {
+        for (int brokerNum = 0; brokerNum < getNumNodes(); brokerNum++) {
             Properties server = new Properties();
             server.putAll(brokerConfigs);
 
+            if (!isBrokerNode(brokerNum)) {
+                properties.add(getControllerOnlyConfig(server, kafkaEndpoints, brokerNum));
+                continue;
+            }
+
             putConfig(server, "broker.id", Integer.toString(brokerNum));
 
             var interBrokerEndpoint = kafkaEndpoints.getInterBrokerEndpoint(brokerNum);
@@ -222,18 +244,14 @@ public class KafkaClusterConfig {
             if (isKraftMode()) {
                 putConfig(server, "node.id", Integer.toString(brokerNum)); // Required by Kafka 3.3 onwards.
 
-                var controllerEndpoint = kafkaEndpoints.getControllerEndpoint(brokerNum);
-                var quorumVoters = IntStream.range(0, kraftControllers)
-                        .mapToObj(controllerId -> String.format("%d@//%s", controllerId, kafkaEndpoints.getControllerEndpoint(controllerId).connectAddress()))
-                        .collect(Collectors.joining(","));
-                putConfig(server, "controller.quorum.voters", quorumVoters);
+                putConfig(server, "controller.quorum.voters", buildQuorumVoters(kafkaEndpoints));
                 putConfig(server, "controller.listener.names", "CONTROLLER");
                 protocolMap.put("CONTROLLER", SecurityProtocol.PLAINTEXT.name());
 
-                if (brokerNum == 0) {
+                if (isControllerNode(brokerNum)) {
                     putConfig(server, "process.roles", "broker,controller");
 
-                    listeners.put("CONTROLLER", controllerEndpoint.getBind().toString());
+                    listeners.put("CONTROLLER", kafkaEndpoints.getControllerEndpoint(brokerNum).getBind().toString());
                     earlyStart.add("CONTROLLER");
                 }
                 else {
@@ -313,12 +331,77 @@ public class KafkaClusterConfig {
             putConfig(server, "metrics.jmx.exclude", ".*");
 
             properties.add(new ConfigHolder(server, clientEndpoint.getConnect().getPort(), anonEndpoint.getConnect().getPort(),
-                    clientEndpoint.connectAddress(), brokerNum, kafkaKraftClusterId));
+                    clientEndpoint.connectAddress(), brokerNum, kafkaKraftClusterId, true));
         }
 
         return properties.stream();
     }
 
+    private ConfigHolder getControllerOnlyConfig(Properties server, KafkaEndpoints kafkaEndpoints, int nodeId) {
+        // A controller-only node has just the CONTROLLER listener, which it doesn't advertise
+        var controllerEndpoint = kafkaEndpoints.getControllerEndpoint(nodeId);
+        putConfig(server, "node.id", Integer.toString(nodeId));
+        putConfig(server, "process.roles", "controller");
+        putConfig(server, "controller.quorum.voters", buildQuorumVoters(kafkaEndpoints));
+        putConfig(server, "controller.listener.names", "CONTROLLER");
+        putConfig(server, "listener.security.protocol.map", "CONTROLLER:" + SecurityProtocol.PLAINTEXT.name());
+        putConfig(server, "listeners", "CONTROLLER:" + controllerEndpoint.getBind().toString());
+        putConfig(server, "early.start.listeners", "CONTROLLER");
+        putConfig(server, "metrics.jmx.exclude", ".*");
+        return new ConfigHolder(server, null, null, null, nodeId, kafkaKraftClusterId, false);
+    }
+
+    private String buildQuorumVoters(KafkaEndpoints kafkaEndpoints) {
+        return getControllerNodeIds()
+                .mapToObj(controllerId -> String.format("%d@//%s", controllerId, kafkaEndpoints.getControllerEndpoint(controllerId).connectAddress()))
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Gets the number of nodes in the cluster, which includes brokers and any controller-only nodes.
+     * Broker nodes always have the lowest node ids.
+     *
+     * @return the number of nodes
+     */
+    public int getNumNodes() {
+        if (!isKraftMode()) {
+            return brokersNum;
+        }
+        return Boolean.TRUE.equals(dedicatedControllers) ? brokersNum + kraftControllers : Math.max(brokersNum, kraftControllers);
+    }
+
+    /**
+     * Whether the given node acts as a broker.
+     *
+     * @param nodeId the node id
+     * @return true if the node is a broker
+     */
+    public boolean isBrokerNode(int nodeId) {
+        return nodeId < brokersNum;
+    }
+
+    /**
+     * Whether the given node acts as a KRaft controller.
+     *
+     * @param nodeId the node id
+     * @return true if the node is a controller
+     */
+    public boolean isControllerNode(int nodeId) {
+        if (!isKraftMode()) {
+            return false;
+        }
+        return Boolean.TRUE.equals(dedicatedControllers) ? nodeId >= brokersNum && nodeId < getNumNodes() : nodeId < kraftControllers;
+    }
+
+    /**
+     * Gets the node ids of the KRaft controllers. This is empty for a ZooKeeper-based cluster.
+     *
+     * @return the controller node ids
+     */
+    public IntStream getControllerNodeIds() {
+        return IntStream.range(0, getNumNodes()).filter(this::isControllerNode);
+    }
+
     private static void putConfig(Properties server, String key, String value) {
         var orig = server.put(key, value);
         if (orig != null) {
@@ -357,7 +440,13 @@ public class KafkaClusterConfig {
      */
     @NotNull
     public String buildControllerBootstrapServers(KafkaEndpoints kafkaEndpoints) {
-        return buildBootstrapServers(getBrokersNum(), kafkaEndpoints::getControllerEndpoint);
+        if (!isKraftMode()) {
+            return kafkaEndpoints.getControllerEndpoint(0).connectAddress();
+        }
+        return getControllerNodeIds()
+                .mapToObj(kafkaEndpoints::getControllerEndpoint)
+                .map(KafkaEndpoints.EndpointPair::connectAddress)
+                .collect(Collectors.joining(","));
     }
 
     /**
@@ -531,9 +620,10 @@ public class KafkaClusterConfig {
         private final String endpoint;
         private final int brokerNum;
         private final String kafkaKraftClusterId;
+        private final boolean broker;
 
         /**
-         * Instantiates a new Config holder.
+         * Instantiates a new Config holder for a node which acts as a broker.
          *
          * @param properties the properties
          * @param externalPort the external port
@@ -543,12 +633,29 @@ public class KafkaClusterConfig {
          * @param kafkaKraftClusterId the kafka kraft cluster id
          */
         public ConfigHolder(Properties properties, Integer externalPort, Integer anonPort, String endpoint, int brokerNum, String kafkaKraftClusterId) {
+            this(properties, externalPort, anonPort, endpoint, brokerNum, kafkaKraftClusterId, true);
+        }
+
+        /**
+         * Instantiates a new Config holder.
+         *
+         * @param properties the properties
+         * @param externalPort the external port, or null for a controller-only node
+         * @param anonPort the anon port, or null for a controller-only node
+         * @param endpoint the endpoint, or null for a controller-only node
+         * @param brokerNum the broker num (the node id)
+         * @param kafkaKraftClusterId the kafka kraft cluster id
+         * @param broker whether the node acts as a broker
+         */
+        public ConfigHolder(Properties properties, Integer externalPort, Integer anonPort, String endpoint, int brokerNum, String kafkaKraftClusterId,
+                            boolean broker) {
             this.properties = properties;
             this.externalPort = externalPort;
             this.anonPort = anonPort;
             this.endpoint = endpoint;
             this.brokerNum = brokerNum;
             this.kafkaKraftClusterId = kafkaKraftClusterId;
+            this.broker = broker;
         }
     }
 
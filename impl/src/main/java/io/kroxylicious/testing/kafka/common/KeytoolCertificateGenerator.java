@@ -5,32 +5,38 @@
  */
 package io.kroxylicious.testing.kafka.common;
 
-import java.io.BufferedReader;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
-import java.util.ArrayList;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
+
+import javax.security.auth.x500.X500Principal;
 
 import static java.lang.System.Logger.Level.DEBUG;
-import static java.lang.System.Logger.Level.WARNING;
 
 /**
- * Used to configured and manage certificates using the JDK's keytool.
+ * Used to configured and manage certificates, generating them in-process using the JDK's security APIs
+ * rather than by running {@code keytool}.
  */
 public class KeytoolCertificateGenerator {
+    private static final String KEY_STORE_TYPE = "PKCS12";
+    private static final int PEM_LINE_LENGTH = 64;
+
     private String password;
     private final Path certFilePath;
     private final Path keyStoreFilePath;
     private final Path trustStoreFilePath;
+    private final Tls.KeyAlgorithm keyAlgorithm;
     private final System.Logger log = System.getLogger(KeytoolCertificateGenerator.class.getName());
 
     /**
@@ -42,6 +48,16 @@ public class KeytoolCertificateGenerator {
         this(null, null);
     }
 
+    /**
+     * Instantiates a new Keytool certificate generator, generating keys of the given algorithm.
+     *
+     * @param keyAlgorithm the key algorithm
+     * @throws IOException the io exception
+     */
+    public KeytoolCertificateGenerator(Tls.KeyAlgorithm keyAlgorithm) throws IOException {
+        this(null, null, keyAlgorithm);
+    }
+
     /**
      * Instantiates a new Keytool certificate generator.
      *
@@ -50,6 +66,19 @@ public class KeytoolCertificateGenerator {
      * @throws IOException the io exception
      */
     public KeytoolCertificateGenerator(String certFilePath, String trustStorePath) throws IOException {
+        this(certFilePath, trustStorePath, Tls.KeyAlgorithm.RSA_2048);
+    }
+
+    /**
+     * Instantiates a new Keytool certificate generator.
+     *
+     * @param certFilePath the cert file path
+     * @param trustStorePath the trust store path
+     * @param keyAlgorithm the key algorithm
+     * @throws IOException the io exception
+     */
+    public KeytoolCertificateGenerator(String certFilePath, String trustStorePath, Tls.KeyAlgorithm keyAlgorithm) throws IOException {
+        this.keyAlgorithm = keyAlgorithm;
         Path certsDirectory = Files.createTempDirectory("kproxy");
         this.certFilePath = Path.of(certsDirectory.toAbsolutePath() + "/cert-file");
         this.keyStoreFilePath = (certFilePath != null) ? Path.of(certFilePath) : Paths.get(certsDirectory.toAbsolutePath().toString(), "kafka.keystore.jks");
@@ -104,6 +133,15 @@ public class KeytoolCertificateGenerator {
         return password;
     }
 
+    /**
+     * Gets key algorithm.
+     *
+     * @return the algorithm of the generated keys
+     */
+    public Tls.KeyAlgorithm getKeyAlgorithm() {
+        return keyAlgorithm;
+    }
+
     /**
      * Can generate wildcard san.
      *
@@ -136,28 +174,27 @@ public class KeytoolCertificateGenerator {
      */
     public void generateTrustStore(String certFilePath, String alias, String trustStoreFilePath)
             throws GeneralSecurityException, IOException {
-        // keytool -import -trustcacerts -keystore truststore.jks -storepass password -noprompt -alias localhost -file cert.crt
-        KeyStore keyStore = KeyStore.getInstance("JKS");
-        if (Path.of(trustStoreFilePath).toFile().exists()) {
-            keyStore.load(new FileInputStream(trustStoreFilePath), getPassword().toCharArray());
-
-            if (keyStore.containsAlias(alias)) {
-                keyStore.deleteEntry(alias);
-                keyStore.store(new FileOutputStream(trustStoreFilePath), getPassword().toCharArray());
-            }
+        Collection<? extends Certificate> certificates;
+        try (var in = Files.newInputStream(Path.of(certFilePath))) {
+            certificates = CertificateFactory.getInstance("X.509").generateCertificates(in);
         }
 
-        final List<String> commandParameters = new ArrayList<>(List.of("keytool", "-import", "-trustcacerts"));
-        commandParameters.addAll(List.of("-keystore", trustStoreFilePath));
-        commandParameters.addAll(List.of("-storepass", getPassword()));
-        commandParameters.add("-noprompt");
-        commandParameters.addAll(List.of("-alias", alias));
-        commandParameters.addAll(List.of("-file", certFilePath));
-        runCommand(commandParameters);
+        KeyStore trustStore = loadOrCreateKeyStore(Path.of(trustStoreFilePath));
+        int index = 0;
+        for (Certificate certificate : certificates) {
+            trustStore.setCertificateEntry(index == 0 ? alias : alias + "-" + index, certificate);
+            index++;
+        }
+        storeKeyStore(trustStore, Path.of(trustStoreFilePath));
     }
 
     /**
-     * Generate self-signed certificate entry.
+     * Generate a certificate entry, keyed by the domain.
+     * <p>
+     * Despite the name, the certificate is issued by a certificate authority shared by the whole JVM, and the key and
+     * certificate are reused for any later identical request. The certificate file, and so any trust store generated from
+     * it, contains the issued certificate itself rather than the authority's, so trust remains specific to each certificate.
+     * </p>
      *
      * @param email the email
      * @param domain the domain
@@ -173,72 +210,48 @@ public class KeytoolCertificateGenerator {
                                                    String organization, String city, String state,
                                                    String country)
             throws GeneralSecurityException, IOException {
+        var subject = new X500Principal(getDomainName(email, domain, organizationUnit, organization, city, state, country));
+        var dnsNames = canGenerateWildcardSAN() && !isWildcardDomain(domain) ? List.of(domain) : List.<String> of();
+        var entry = CertificateAuthority.session(keyAlgorithm).issue(subject, dnsNames);
+        log.log(DEBUG, "Using certificate for {0}", subject);
 
-        KeyStore keyStore = KeyStore.getInstance("JKS");
-        if (keyStoreFilePath.toFile().exists()) {
-            keyStore.load(new FileInputStream(keyStoreFilePath.toFile()), getPassword().toCharArray());
-
-            if (keyStore.containsAlias(domain)) {
-                keyStore.deleteEntry(domain);
-                keyStore.store(new FileOutputStream(keyStoreFilePath.toFile()), getPassword().toCharArray());
-            }
-        }
-
-        final List<String> commandParameters = new ArrayList<>(List.of("keytool", "-genkey"));
-        commandParameters.addAll(List.of("-alias", domain));
-        commandParameters.addAll(List.of("-keyalg", "RSA"));
-        commandParameters.addAll(List.of("-keysize", "2048"));
-        commandParameters.addAll(List.of("-sigalg", "SHA256withRSA"));
-        commandParameters.addAll(List.of("-storetype", "JKS"));
-        commandParameters.addAll(List.of("-keystore", getKeyStoreLocation()));
-        commandParameters.addAll(List.of("-storepass", getPassword()));
-        commandParameters.addAll(List.of("-keypass", getPassword()));
-        commandParameters.addAll(
-                List.of("-dname", getDomainName(email, domain, organizationUnit, organization, city, state, country)));
-        commandParameters.addAll(List.of("-validity", "365"));
-        commandParameters.addAll(List.of("-deststoretype", "pkcs12"));
-        if (canGenerateWildcardSAN() && !isWildcardDomain(domain)) {
-            commandParameters.addAll(getSAN(domain));
-        }
-        runCommand(commandParameters);
+        KeyStore keyStore = loadOrCreateKeyStore(keyStoreFilePath);
+        keyStore.setKeyEntry(domain, entry.getPrivateKey(), getPassword().toCharArray(), entry.getCertificateChain());
+        storeKeyStore(keyStore, keyStoreFilePath);
 
-        createCrtFileToImport();
+        writeCertificateFile(keyStore);
     }
 
-    private void createCrtFileToImport() throws IOException {
-        final List<String> commandParameters = new ArrayList<>(List.of("openssl", "pkcs12"));
-        commandParameters.addAll(List.of("-in", getKeyStoreLocation()));
-        commandParameters.addAll(List.of("-passin", "pass:" + getPassword()));
-        commandParameters.add("-nokeys");
-        commandParameters.addAll(List.of("-out", certFilePath.toAbsolutePath().toString()));
-        runCommand(commandParameters);
+    private KeyStore loadOrCreateKeyStore(Path path) throws GeneralSecurityException, IOException {
+        if (path.toFile().exists()) {
+            // Detects the type of an existing store, which might have been supplied by the caller
+            return KeyStore.getInstance(path.toFile(), getPassword().toCharArray());
+        }
+        KeyStore keyStore = KeyStore.getInstance(KEY_STORE_TYPE);
+        keyStore.load(null, null);
+        return keyStore;
     }
 
-    private void runCommand(List<String> commandParameters) throws IOException {
-        ProcessBuilder keytool = new ProcessBuilder().command(commandParameters);
-
-        final Process process = keytool.start();
-        try {
-            process.waitFor();
-        }
-        catch (InterruptedException e) {
-            throw new IOException("Keytool execution error");
+    private void storeKeyStore(KeyStore keyStore, Path path) throws GeneralSecurityException, IOException {
+        try (var out = Files.newOutputStream(path)) {
+            keyStore.store(out, getPassword().toCharArray());
         }
+    }
 
-        log.log(DEBUG, "Generating certificate using `keytool` using command: {0}, parameters: {1}",
-                process.info(), commandParameters);
-
-        if (process.exitValue() > 0) {
-            final String processError = (new BufferedReader(new InputStreamReader(process.getErrorStream()))).lines()
-                    .collect(Collectors.joining(" \\ "));
-            final String processOutput = (new BufferedReader(new InputStreamReader(process.getInputStream()))).lines()
-                    .collect(Collectors.joining(" \\ "));
-            log.log(WARNING, "Error generating certificate, error output: {0}, normal output: {1}, " +
-                    "commandline parameters: {2}",
-                    processError, processOutput, commandParameters);
-            throw new IOException(
-                    "Keytool execution error: '" + processError + "', output: '" + processOutput + "'" + ", commandline parameters: " + commandParameters);
+    /**
+     * Writes the certificates of all the key store's key entries to the certificate file, PEM encoded.
+     */
+    private void writeCertificateFile(KeyStore keyStore) throws GeneralSecurityException, IOException {
+        var encoder = Base64.getMimeEncoder(PEM_LINE_LENGTH, "\n".getBytes(StandardCharsets.US_ASCII));
+        var pem = new StringBuilder();
+        for (String alias : Collections.list(keyStore.aliases())) {
+            if (keyStore.isKeyEntry(alias)) {
+                pem.append("-----BEGIN CERTIFICATE-----\n")
+                        .append(encoder.encodeToString(keyStore.getCertificate(alias).getEncoded()))
+                        .append("\n-----END CERTIFICATE-----\n");
+            }
         }
+        Files.writeString(certFilePath, pem, StandardCharsets.US_ASCII);
     }
 
     private boolean isWildcardDomain(String domain) {
@@ -251,8 +264,4 @@ public class KeytoolCertificateGenerator {
         return "CN=" + domain + ", OU=" + organizationUnit + ", O=" + organization + ", L=" + city + ", ST=" + state +
                 ", C=" + country + ", EMAILADDRESS=" + email;
     }
-
-    private List<String> getSAN(String domain) {
-        return List.of("-ext", "SAN=dns:" + domain);
-    }
 }
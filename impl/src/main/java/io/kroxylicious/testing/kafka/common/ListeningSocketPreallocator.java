@@ -7,6 +7,7 @@ package io.kroxylicious.testing.kafka.common;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.util.ArrayList;
 import java.util.List;
@@ -18,7 +19,9 @@ import java.util.stream.Stream;
  * The caller may call #preAllocateListeningSockets any number of times.
  * The caller is guaranteed that all allocated port numbers are unique, even across invocations of #preAllocateListeningSockets.
  *
- * Before the caller attempts to bind, they must call #close.  Once close is called no further use of the socket
+ * Each socket remains bound, reserving its port, until it is released.  The caller should release each socket
+ * immediately before the port is bound by its intended user, in order to minimise the window in which another process
+ * could take the port.  Calling #close releases all the sockets.  Once close is called no further use of the socket
  * allocator is permitted.
  */
 public class ListeningSocketPreallocator implements AutoCloseable {
@@ -32,7 +35,7 @@ public class ListeningSocketPreallocator implements AutoCloseable {
     }
 
     /**
-     * Pre-allocate 1 or more ephemeral ports which are available for use once the #close method is called.
+     * Pre-allocate 1 or more ephemeral ports, each of which is available for use once its socket is closed.
      *
      * @param num number of ports to pre-allocate
      * @return stream of ephemeral ports
@@ -46,9 +49,11 @@ public class ListeningSocketPreallocator implements AutoCloseable {
         try {
             for (int i = 0; i < num; i++) {
                 try {
-                    var serverSocket = new ServerSocket(0);
+                    var serverSocket = new ServerSocket();
                     ports.add(serverSocket);
+                    // Must be set before binding, so that the port can be rebound as soon as it's released
                     serverSocket.setReuseAddress(true);
+                    serverSocket.bind(new InetSocketAddress(0));
                 }
                 catch (IOException e) {
                     System.getLogger("portAllocator").log(System.Logger.Level.WARNING, "failed to allocate port: ", e);
@@ -0,0 +1,44 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.common;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import io.kroxylicious.testing.kafka.api.KafkaClusterConstraint;
+import io.kroxylicious.testing.kafka.api.KafkaClusterProvisioningStrategy;
+
+/**
+ * Annotation constraining a {@link KafkaClusterProvisioningStrategy} to provide a cluster
+ * which stores its logs (and ZooKeeper's data, if any) on the given medium.
+ */
+@Target({ ElementType.PARAMETER, ElementType.FIELD })
+@Retention(RetentionPolicy.RUNTIME)
+@KafkaClusterConstraint
+public @interface LogStorage {
+
+    /**
+     * The storage medium.
+     * @return The storage medium.
+     */
+    Medium value();
+
+    /**
+     * A storage medium.
+     */
+    enum Medium {
+        /**
+         * The default temporary directory.
+         */
+        DISK,
+        /**
+         * A memory-backed file system (such as {@code /dev/shm}), falling back to {@link #DISK} when none is available.
+         */
+        RAM
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.common;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import io.kroxylicious.testing.kafka.api.KafkaCluster;
+import io.kroxylicious.testing.kafka.api.KafkaClusterProvisioningStrategy;
+
+/**
+ * The times taken to provision clusters, by provisioning strategy, declaration type and set of constraints, kept in a
+ * small properties file between test runs so that provisioning strategies can estimate provisioning times from experience.
+ * The declaration type is part of the key so that what is learned from declarations which only one strategy supports
+ * doesn't decide which strategy provisions a declaration which several support.
+ * <p>
+ * Each estimate is an exponentially weighted moving average of the observed times, so that it follows changes in the
+ * environment, such as an upgrade of Kafka, without being unduly affected by a single slow start.
+ * </p>
+ */
+public final class ProvisioningStatistics {
+
+    /**
+     * environment variable specifying the file in which provisioning times are kept between test runs.  Defaults to
+     * {@value #DEFAULT_FILE_NAME} in the directory given by the {@code java.io.tmpdir} system property.
+     */
+    public static final String TEST_CLUSTER_PROVISIONING_STATS_FILE = "TEST_CLUSTER_PROVISIONING_STATS_FILE";
+
+    private static final System.Logger LOGGER = System.getLogger(ProvisioningStatistics.class.getName());
+    private static final String DEFAULT_FILE_NAME = "kroxylicious-testing-provisioning-stats.properties";
+    // The weight of the latest observation in an estimate
+    private static final double SMOOTHING = 0.3;
+
+    private static ProvisioningStatistics session;
+
+    private final Path file;
+    private final Map<String, Duration> estimates = new ConcurrentHashMap<>();
+
+    ProvisioningStatistics(Path file) {
+        this.file = file;
+        read(file).forEach((key, value) -> {
+            try {
+                estimates.put((String) key, Duration.ofMillis(Long.parseLong((String) value)));
+            }
+            catch (NumberFormatException e) {
+                LOGGER.log(System.Logger.Level.DEBUG, "Ignoring malformed provisioning time {0} for {1}", value, key);
+            }
+        });
+    }
+
+    /**
+     * Gets the statistics of this JVM, reading them from the statistics file when first called.
+     *
+     * @return the statistics
+     */
+    public static synchronized ProvisioningStatistics session() {
+        if (session == null) {
+            var configured = System.getenv(TEST_CLUSTER_PROVISIONING_STATS_FILE);
+            var file = configured != null && !configured.isBlank() ? Path.of(configured) : Path.of(System.getProperty("java.io.tmpdir"), DEFAULT_FILE_NAME);
+            session = new ProvisioningStatistics(file);
+        }
+        return session;
+    }
+
+    /**
+     * Gets the estimated time for the given strategy to provision a cluster with the given constraints for a
+     * declaration of the given type.
+     *
+     * @param strategy the provisioning strategy
+     * @param constraints the constraints
+     * @param declarationType the declaration type
+     * @return the estimate, or empty if no such cluster has been provisioned
+     */
+    public Optional<Duration> estimate(Class<? extends KafkaClusterProvisioningStrategy> strategy, List<Annotation> constraints,
+                                       Class<? extends KafkaCluster> declarationType) {
+        return Optional.ofNullable(estimates.get(key(strategy, constraints, declarationType)));
+    }
+
+    /**
+     * Records the time taken by the given strategy to provision a cluster with the given constraints for a declaration
+     * of the given type, updating the estimate and the statistics file. Failure to update the file is logged rather
+     * than thrown.
+     *
+     * @param strategy the provisioning strategy
+     * @param constraints the constraints
+     * @param declarationType the declaration type
+     * @param provisioningTime the time taken
+     */
+    public void record(Class<? extends KafkaClusterProvisioningStrategy> strategy, List<Annotation> constraints, Class<? extends KafkaCluster> declarationType,
+                       Duration provisioningTime) {
+        var key = key(strategy, constraints, declarationType);
+        var estimate = estimates.merge(key, provisioningTime, (previous, latest) -> Duration.ofNanos(
+                Math.round(SMOOTHING * latest.toNanos() + (1 - SMOOTHING) * previous.toNanos())));
+        write(key, estimate);
+    }
+
+    static String key(Class<?> strategy, List<Annotation> constraints, Class<?> declarationType) {
+        var canonicalConstraints = constraints.stream()
+                .map(ConstraintUtils::canonicalForm)
+                .sorted()
+                .collect(Collectors.joining("\n"));
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(canonicalConstraints.getBytes(StandardCharsets.UTF_8));
+            return strategy.getName() + "." + declarationType.getName() + "." + HexFormat.of().formatHex(digest);
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private synchronized void write(String key, Duration estimate) {
+        // Other JVMs, such as parallel test forks, may have written the file since it was read, so update only this key
+        var properties = read(file);
+        properties.setProperty(key, Long.toString(estimate.toMillis()));
+        try {
+            var parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            var temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try {
+                try (var out = Files.newOutputStream(temp)) {
+                    properties.store(out, "Cluster provisioning times in milliseconds");
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        catch (IOException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Failed to write provisioning statistics to {0}: {1}", file, e.getMessage(), e);
+        }
+    }
+
+    private static Properties read(Path file) {
+        var properties = new Properties();
+        try (var in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        catch (NoSuchFileException e) {
+            // Nothing has been recorded yet
+        }
+        catch (IOException | IllegalArgumentException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Ignoring unreadable provisioning statistics in {0}: {1}", file, e.getMessage());
+        }
+        return properties;
+    }
+}
@@ -21,4 +21,28 @@ import io.kroxylicious.testing.kafka.api.KafkaClusterProvisioningStrategy;
 @Target({ ElementType.FIELD, ElementType.PARAMETER })
 @KafkaClusterConstraint
 public @interface Tls {
+
+    /**
+     * The algorithm of the keys, and so of the certificates, generated for the cluster.
+     * @return The key algorithm.
+     */
+    KeyAlgorithm keyAlgorithm() default KeyAlgorithm.RSA_2048;
+
+    /**
+     * A key algorithm.
+     */
+    enum KeyAlgorithm {
+        /**
+         * 2048 bit RSA, signed with SHA-256.
+         */
+        RSA_2048,
+        /**
+         * ECDSA on the NIST P-256 curve, signed with SHA-256. Much quicker than RSA to generate keys for and to handshake with.
+         */
+        EC_P256,
+        /**
+         * EdDSA on Curve25519. Quicker still, but not supported by every TLS peer.
+         */
+        ED25519
+    }
 }
@@ -7,23 +7,42 @@
 package io.kroxylicious.testing.kafka.common;
 
 import java.time.Duration;
-import java.util.Arrays;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AlterConfigOp;
+import org.apache.kafka.clients.admin.ConfigEntry;
+import org.apache.kafka.clients.admin.ConsumerGroupListing;
+import org.apache.kafka.clients.admin.ListTopicsOptions;
+import org.apache.kafka.clients.admin.UserScramCredentialAlteration;
+import org.apache.kafka.clients.admin.UserScramCredentialDeletion;
 import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.acl.AclBindingFilter;
+import org.apache.kafka.common.config.ConfigResource;
+import org.apache.kafka.common.errors.SecurityDisabledException;
+import org.apache.kafka.common.errors.UnsupportedVersionException;
+import org.apache.kafka.common.internals.Topic;
+import org.apache.kafka.common.quota.ClientQuotaAlteration;
+import org.apache.kafka.common.quota.ClientQuotaFilter;
 import org.awaitility.Awaitility;
+import org.awaitility.core.ConditionTimeoutException;
+import org.awaitility.pollinterval.IterativePollInterval;
+import org.awaitility.pollinterval.PollInterval;
 import org.hamcrest.Matchers;
 import org.slf4j.Logger;
 
-import static java.util.function.Predicate.not;
 import static org.apache.kafka.clients.CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -32,71 +51,230 @@ import static org.slf4j.LoggerFactory.getLogger;
  */
 public class Utils {
     private static final Logger log = getLogger(Utils.class);
+    private static final Duration INITIAL_POLL_INTERVAL = Duration.ofMillis(10);
+    private static final Duration MAX_POLL_INTERVAL = Duration.ofSeconds(1);
 
     private Utils() {
     }
 
+    /**
+     * Creates a poll interval which starts short, so that conditions which are satisfied quickly are noticed quickly,
+     * and doubles on each poll up to a maximum of one second, so that slow conditions are not polled excessively.
+     *
+     * @return the poll interval
+     */
+    public static PollInterval backoffPollInterval() {
+        return IterativePollInterval.iterative(
+                interval -> {
+                    var doubled = interval.multipliedBy(2);
+                    return doubled.compareTo(MAX_POLL_INTERVAL) < 0 ? doubled : MAX_POLL_INTERVAL;
+                },
+                INITIAL_POLL_INTERVAL);
+    }
+
     /**
      * Await expected broker count in cluster.
-     * Verifies that each broker in cluster is returning the expected cluster size.
+     * Verifies that each broker addressed by the connection config is responding to requests, and that its own view
+     * of the cluster's metadata has a controller and exactly the expected number of brokers.
+     * The admin client API has no means of directing a metadata request at a given broker, so each broker is probed
+     * by an admin client bootstrapped on it alone, which is created once and reused between polls.
      *
-     * @param connectionConfig the connection config
+     * @param connectionConfig the connection config, which must address every broker in the cluster
      * @param timeout the timeout
      * @param timeUnit the time unit
      * @param expectedBrokerCount the expected broker count
      */
     public static void awaitExpectedBrokerCountInCluster(Map<String, Object> connectionConfig, int timeout, TimeUnit timeUnit, Integer expectedBrokerCount) {
-        var knownReady = Collections.synchronizedSet(new HashSet<String>());
-        var toProbe = Collections.synchronizedSet(new HashSet<String>());
-
-        var originalBootstrap = String.valueOf(connectionConfig.get(BOOTSTRAP_SERVERS_CONFIG));
-        toProbe.addAll(Arrays.asList(originalBootstrap.split(",")));
-
-        while (knownReady.size() < expectedBrokerCount && !toProbe.isEmpty()) {
-            var probeAddress = toProbe.iterator().next();
-
-            var copy = new HashMap<>(connectionConfig);
-            copy.put(BOOTSTRAP_SERVERS_CONFIG, probeAddress);
-
-            try (Admin admin = Admin.create(copy)) {
-                Awaitility.await()
-                        .pollDelay(Duration.ZERO)
-                        .pollInterval(1, TimeUnit.SECONDS)
-                        .atMost(timeout, timeUnit)
-                        .ignoreExceptions()
-                        .until(() -> {
-                            log.debug("describing cluster using address: {}", probeAddress);
+        var ready = new AtomicInteger();
+        var probes = new LinkedHashMap<String, Admin>();
+        try {
+            for (String probeAddress : String.valueOf(connectionConfig.get(BOOTSTRAP_SERVERS_CONFIG)).split(",")) {
+                var copy = new HashMap<>(connectionConfig);
+                copy.put(BOOTSTRAP_SERVERS_CONFIG, probeAddress);
+                probes.put(probeAddress, Admin.create(copy));
+            }
+            Awaitility.await()
+                    .pollDelay(Duration.ZERO)
+                    .pollInterval(backoffPollInterval())
+                    .atMost(timeout, timeUnit)
+                    .ignoreExceptions()
+                    .until(() -> {
+                        int converged = 0;
+                        for (var probe : probes.entrySet()) {
                             try {
-                                admin.describeCluster().controller().get().id();
-                                var nodes = admin.describeCluster().nodes().get(10, TimeUnit.SECONDS);
-                                log.debug("{} sees peers: {}", probeAddress, nodes);
-
-                                toProbe.addAll(nodes.stream().filter(not(Node::isEmpty))
-                                        .map(Utils::nodeToAddr)
-                                        .filter(not(knownReady::contains)).collect(Collectors.toSet()));
-                                return nodes;
+                                var cluster = probe.getValue().describeCluster();
+                                cluster.controller().get(10, TimeUnit.SECONDS).id();
+                                var nodes = cluster.nodes().get(10, TimeUnit.SECONDS);
+                                log.debug("{} sees peers: {}", probe.getKey(), nodes);
+                                if (nodes.size() == expectedBrokerCount) {
+                                    converged++;
+                                }
                             }
-                            catch (InterruptedException | ExecutionException e) {
-                                log.warn("caught: {}", e.getMessage(), e);
+                            catch (ExecutionException | TimeoutException e) {
+                                log.debug("{} is not yet ready: {}", probe.getKey(), e.getMessage());
                             }
-                            catch (TimeoutException te) {
-                                log.warn("Kafka timed out describing the the cluster");
-                            }
-                            return Collections.emptyList();
-                        }, Matchers.hasSize(expectedBrokerCount));
+                        }
+                        ready.set(converged);
+                        return converged;
+                    }, Matchers.equalTo(expectedBrokerCount));
+        }
+        catch (ConditionTimeoutException e) {
+            throw new IllegalArgumentException(String.format("Too few broker(s) became ready (%d), expected %d.", ready.get(), expectedBrokerCount), e);
+        }
+        finally {
+            probes.values().forEach(Admin::close);
+        }
+    }
+
+    /**
+     * Reset the state of a cluster.
+     * Deletes all non-internal topics, consumer groups, ACLs, SCRAM credentials, dynamic broker and topic configs
+     * and client quotas, then waits until each broker in the cluster has removed its replicas of the deleted topics.
+     *
+     * @param connectionConfig the connection config, which must address every broker in the cluster
+     * @param timeout the timeout
+     * @param timeUnit the time unit
+     */
+    public static void resetClusterState(Map<String, Object> connectionConfig, int timeout, TimeUnit timeUnit) {
+        try (Admin admin = Admin.create(connectionConfig)) {
+            Set<String> deletedTopics = deleteTopics(admin, timeout, timeUnit);
+            deleteConsumerGroups(admin, timeout, timeUnit);
+            deleteAcls(admin, timeout, timeUnit);
+            deleteScramCredentials(admin, timeout, timeUnit);
+            deleteDynamicConfigs(admin, timeout, timeUnit);
+            deleteClientQuotas(admin, timeout, timeUnit);
+            awaitTopicDeletionInCluster(admin, deletedTopics, timeout, timeUnit);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        catch (ExecutionException | TimeoutException e) {
+            throw new RuntimeException("Failed to reset cluster state", e);
+        }
+    }
+
+    private static Set<String> deleteTopics(Admin admin, int timeout, TimeUnit timeUnit) throws InterruptedException, ExecutionException, TimeoutException {
+        Set<String> topics = admin.listTopics(new ListTopicsOptions().listInternal(false)).names().get(timeout, timeUnit);
+        if (!topics.isEmpty()) {
+            log.debug("deleting topics: {}", topics);
+            admin.deleteTopics(topics).all().get(timeout, timeUnit);
+        }
+        return topics;
+    }
+
+    private static void deleteConsumerGroups(Admin admin, int timeout, TimeUnit timeUnit) throws InterruptedException, ExecutionException, TimeoutException {
+        Set<String> groupIds = admin.listConsumerGroups().all().get(timeout, timeUnit).stream()
+                .map(ConsumerGroupListing::groupId)
+                .collect(Collectors.toSet());
+        if (!groupIds.isEmpty()) {
+            log.debug("deleting consumer groups: {}", groupIds);
+            admin.deleteConsumerGroups(groupIds).all().get(timeout, timeUnit);
+        }
+    }
+
+    private static void deleteAcls(Admin admin, int timeout, TimeUnit timeUnit) throws InterruptedException, ExecutionException, TimeoutException {
+        try {
+            if (!admin.describeAcls(AclBindingFilter.ANY).values().get(timeout, timeUnit).isEmpty()) {
+                log.debug("deleting ACLs");
+                admin.deleteAcls(List.of(AclBindingFilter.ANY)).all().get(timeout, timeUnit);
+            }
+        }
+        catch (ExecutionException e) {
+            // Without an authorizer there can be no ACLs to delete
+            if (!(e.getCause() instanceof SecurityDisabledException)) {
+                throw e;
             }
-            knownReady.add(probeAddress);
-            toProbe.remove(probeAddress);
         }
+    }
 
-        int ready = knownReady.size();
-        if (ready < expectedBrokerCount) {
-            throw new IllegalArgumentException(String.format("Too few broker(s) became ready (%d), expected %d.", ready, expectedBrokerCount));
+    private static void deleteScramCredentials(Admin admin, int timeout, TimeUnit timeUnit) throws InterruptedException, ExecutionException, TimeoutException {
+        try {
+            List<UserScramCredentialAlteration> deletions = admin.describeUserScramCredentials().all().get(timeout, timeUnit).values().stream()
+                    .flatMap(description -> description.credentialInfos().stream()
+                            .<UserScramCredentialAlteration> map(info -> new UserScramCredentialDeletion(description.name(), info.mechanism())))
+                    .collect(Collectors.toList());
+            if (!deletions.isEmpty()) {
+                log.debug("deleting SCRAM credentials: {}", deletions);
+                admin.alterUserScramCredentials(deletions).all().get(timeout, timeUnit);
+            }
         }
+        catch (ExecutionException e) {
+            // Not all cluster types support SCRAM credentials
+            if (!(e.getCause() instanceof UnsupportedVersionException)) {
+                throw e;
+            }
+        }
+    }
 
+    private static void deleteDynamicConfigs(Admin admin, int timeout, TimeUnit timeUnit) throws InterruptedException, ExecutionException, TimeoutException {
+        List<ConfigResource> resources = new ArrayList<>();
+        resources.add(new ConfigResource(ConfigResource.Type.BROKER, ""));
+        admin.describeCluster().nodes().get(timeout, timeUnit)
+                .forEach(node -> resources.add(new ConfigResource(ConfigResource.Type.BROKER, node.idString())));
+        // Non-internal topics have already been deleted, along with their configs
+        admin.listTopics(new ListTopicsOptions().listInternal(true)).names().get(timeout, timeUnit).stream()
+                .filter(Topic::isInternal)
+                .forEach(topic -> resources.add(new ConfigResource(ConfigResource.Type.TOPIC, topic)));
+
+        Map<ConfigResource, Collection<AlterConfigOp>> deletions = new HashMap<>();
+        admin.describeConfigs(resources).all().get(timeout, timeUnit).forEach((resource, config) -> {
+            var dynamicSource = dynamicConfigSource(resource);
+            List<AlterConfigOp> ops = config.entries().stream()
+                    .filter(entry -> entry.source() == dynamicSource)
+                    .map(entry -> new AlterConfigOp(new ConfigEntry(entry.name(), null), AlterConfigOp.OpType.DELETE))
+                    .collect(Collectors.toList());
+            if (!ops.isEmpty()) {
+                deletions.put(resource, ops);
+            }
+        });
+        if (!deletions.isEmpty()) {
+            log.debug("deleting dynamic configs: {}", deletions);
+            admin.incrementalAlterConfigs(deletions).all().get(timeout, timeUnit);
+        }
+    }
+
+    private static ConfigEntry.ConfigSource dynamicConfigSource(ConfigResource resource) {
+        if (resource.type() == ConfigResource.Type.TOPIC) {
+            return ConfigEntry.ConfigSource.DYNAMIC_TOPIC_CONFIG;
+        }
+        return resource.isDefault() ? ConfigEntry.ConfigSource.DYNAMIC_DEFAULT_BROKER_CONFIG : ConfigEntry.ConfigSource.DYNAMIC_BROKER_CONFIG;
     }
 
-    private static String nodeToAddr(Node node) {
-        return node.host() + ":" + node.port();
+    private static void deleteClientQuotas(Admin admin, int timeout, TimeUnit timeUnit) throws InterruptedException, ExecutionException, TimeoutException {
+        List<ClientQuotaAlteration> alterations = admin.describeClientQuotas(ClientQuotaFilter.all()).entities().get(timeout, timeUnit).entrySet().stream()
+                .map(entry -> new ClientQuotaAlteration(entry.getKey(), entry.getValue().keySet().stream()
+                        .map(key -> new ClientQuotaAlteration.Op(key, null))
+                        .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+        if (!alterations.isEmpty()) {
+            log.debug("deleting client quotas: {}", alterations);
+            admin.alterClientQuotas(alterations).all().get(timeout, timeUnit);
+        }
+    }
+
+    private static void awaitTopicDeletionInCluster(Admin admin, Set<String> deletedTopics, int timeout, TimeUnit timeUnit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (deletedTopics.isEmpty()) {
+            return;
+        }
+        var ids = admin.describeCluster().nodes().get(timeout, timeUnit).stream().map(Node::id).collect(Collectors.toList());
+        // DescribeLogDirs is sent to each of the given brokers, so each broker reports the replicas it still hosts
+        for (Integer id : ids) {
+            Awaitility.await()
+                    .pollDelay(Duration.ZERO)
+                    .pollInterval(backoffPollInterval())
+                    .atMost(timeout, timeUnit)
+                    .ignoreExceptions()
+                    .until(() -> {
+                        Set<String> remaining = admin.describeLogDirs(List.of(id)).descriptions().get(id).get(10, TimeUnit.SECONDS).values().stream()
+                                .flatMap(logDir -> logDir.replicaInfos().keySet().stream())
+                                .map(TopicPartition::topic)
+                                .filter(deletedTopics::contains)
+                                .collect(Collectors.toSet());
+                        log.debug("broker {} still hosts deleted topics: {}", id, remaining);
+                        return remaining;
+                    }, Matchers.empty());
+        }
     }
 }
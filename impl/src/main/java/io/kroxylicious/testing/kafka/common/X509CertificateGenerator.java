@@ -0,0 +1,218 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.security.auth.x500.X500Principal;
+
+/**
+ * Generates X.509 certificates in-process, by DER encoding them directly, as the JDK offers no public API for doing so.
+ * Only the small subset of X.509 needed for test certificates is supported.
+ */
+final class X509CertificateGenerator {
+
+    private static final byte BOOLEAN = 0x01;
+    private static final byte SEQUENCE = 0x30;
+    private static final byte INTEGER = 0x02;
+    private static final byte BIT_STRING = 0x03;
+    private static final byte OCTET_STRING = 0x04;
+    private static final byte NULL = 0x05;
+    private static final byte OBJECT_IDENTIFIER = 0x06;
+    private static final byte UTC_TIME = 0x17;
+    private static final byte GENERALIZED_TIME = 0x18;
+    private static final byte CONTEXT_EXPLICIT_0 = (byte) 0xa0;
+    private static final byte CONTEXT_EXPLICIT_3 = (byte) 0xa3;
+    private static final byte CONTEXT_DNS_NAME = (byte) 0x82;
+
+    private static final String SUBJECT_ALTERNATIVE_NAME = "2.5.29.17";
+    private static final String BASIC_CONSTRAINTS = "2.5.29.19";
+    private static final byte[] TRUE = { (byte) 0xff };
+    private static final int UTC_TIME_MAX_YEAR = 2049;
+    private static final DateTimeFormatter UTC_TIME_FORMAT = DateTimeFormatter.ofPattern("yyMMddHHmmss'Z'");
+    private static final DateTimeFormatter GENERALIZED_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss'Z'");
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private X509CertificateGenerator() {
+    }
+
+    /**
+     * Generates a version 3 certificate for the given subject key, signed by the given issuer key.
+     *
+     * @param issuer the issuer
+     * @param issuerKey the issuer's private key, used to sign the certificate
+     * @param subject the subject
+     * @param subjectKey the subject's public key
+     * @param dnsNames DNS names for the subject alternative name extension, which is omitted if empty
+     * @param certificateAuthority whether the subject is a certificate authority, which may sign other certificates
+     * @param validity how long the certificate is valid for, from now
+     * @return the certificate
+     * @throws GeneralSecurityException if the certificate cannot be signed
+     */
+    static X509Certificate generate(X500Principal issuer, PrivateKey issuerKey, X500Principal subject, PublicKey subjectKey, List<String> dnsNames,
+                                    boolean certificateAuthority, Duration validity)
+            throws GeneralSecurityException {
+        var signatureAlgorithm = SignatureAlgorithm.forKey(issuerKey);
+        var notBefore = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        var extensions = new ArrayList<byte[]>();
+        if (certificateAuthority) {
+            extensions.add(basicConstraintsAuthority());
+        }
+        if (!dnsNames.isEmpty()) {
+            extensions.add(subjectAlternativeNames(dnsNames));
+        }
+
+        var tbsCertificate = sequence(
+                encode(CONTEXT_EXPLICIT_0, integer(BigInteger.TWO)),
+                integer(new BigInteger(64, RANDOM)),
+                signatureAlgorithm.identifier(),
+                issuer.getEncoded(),
+                sequence(time(notBefore), time(notBefore.plus(validity))),
+                subject.getEncoded(),
+                subjectKey.getEncoded(),
+                extensions.isEmpty() ? new byte[0] : encode(CONTEXT_EXPLICIT_3, sequence(extensions.toArray(byte[][]::new))));
+
+        var signer = Signature.getInstance(signatureAlgorithm.jcaName);
+        signer.initSign(issuerKey);
+        signer.update(tbsCertificate);
+
+        var certificate = sequence(tbsCertificate, signatureAlgorithm.identifier(), bitString(signer.sign()));
+        return (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(new ByteArrayInputStream(certificate));
+    }
+
+    private static byte[] subjectAlternativeNames(List<String> dnsNames) {
+        var names = dnsNames.stream()
+                .map(name -> encode(CONTEXT_DNS_NAME, name.getBytes(StandardCharsets.US_ASCII)))
+                .toArray(byte[][]::new);
+        return sequence(objectIdentifier(SUBJECT_ALTERNATIVE_NAME), encode(OCTET_STRING, sequence(names)));
+    }
+
+    private static byte[] basicConstraintsAuthority() {
+        return sequence(objectIdentifier(BASIC_CONSTRAINTS), encode(BOOLEAN, TRUE), encode(OCTET_STRING, sequence(encode(BOOLEAN, TRUE))));
+    }
+
+    private static byte[] time(Instant instant) {
+        var dateTime = ZonedDateTime.ofInstant(instant, ZoneOffset.UTC);
+        // RFC 5280 requires UTCTime until the end of 2049, and GeneralizedTime thereafter
+        if (dateTime.getYear() <= UTC_TIME_MAX_YEAR) {
+            return encode(UTC_TIME, UTC_TIME_FORMAT.format(dateTime).getBytes(StandardCharsets.US_ASCII));
+        }
+        else {
+            return encode(GENERALIZED_TIME, GENERALIZED_TIME_FORMAT.format(dateTime).getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    private static byte[] integer(BigInteger value) {
+        return encode(INTEGER, value.toByteArray());
+    }
+
+    private static byte[] bitString(byte[] bytes) {
+        var content = new byte[bytes.length + 1];
+        // The leading byte is the number of unused bits in the final byte
+        System.arraycopy(bytes, 0, content, 1, bytes.length);
+        return encode(BIT_STRING, content);
+    }
+
+    private static byte[] objectIdentifier(String oid) {
+        var arcs = Arrays.stream(oid.split("\\.")).mapToLong(Long::parseLong).toArray();
+        var content = new ByteArrayOutputStream();
+        content.write((int) (arcs[0] * 40 + arcs[1]));
+        for (int i = 2; i < arcs.length; i++) {
+            var arc = arcs[i];
+            // base 128, most significant group first, with the high bit set on all but the last
+            int groups = Math.max(1, (64 - Long.numberOfLeadingZeros(arc) + 6) / 7);
+            for (int group = groups - 1; group >= 0; group--) {
+                int bits = (int) ((arc >>> (group * 7)) & 0x7f);
+                content.write(group == 0 ? bits : bits | 0x80);
+            }
+        }
+        return encode(OBJECT_IDENTIFIER, content.toByteArray());
+    }
+
+    private static byte[] sequence(byte[]... elements) {
+        return encode(SEQUENCE, concat(elements));
+    }
+
+    private static byte[] encode(byte tag, byte[] content) {
+        var out = new ByteArrayOutputStream(content.length + 6);
+        out.write(tag);
+        int length = content.length;
+        if (length < 0x80) {
+            out.write(length);
+        }
+        else {
+            int lengthBytes = (32 - Integer.numberOfLeadingZeros(length) + 7) / 8;
+            out.write(0x80 | lengthBytes);
+            for (int i = lengthBytes - 1; i >= 0; i--) {
+                out.write(length >>> (i * 8));
+            }
+        }
+        out.writeBytes(content);
+        return out.toByteArray();
+    }
+
+    private static byte[] concat(byte[]... elements) {
+        var out = new ByteArrayOutputStream();
+        for (byte[] element : elements) {
+            out.writeBytes(element);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * The signature algorithm used for each supported type of issuer key.
+     */
+    private enum SignatureAlgorithm {
+        RSA("RSA", "SHA256withRSA", "1.2.840.113549.1.1.11", true),
+        EC("EC", "SHA256withECDSA", "1.2.840.10045.4.3.2", false),
+        ED25519("Ed25519", "Ed25519", "1.3.101.112", false);
+
+        private final String keyAlgorithm;
+        private final String jcaName;
+        private final String oid;
+        private final boolean nullParameters;
+
+        SignatureAlgorithm(String keyAlgorithm, String jcaName, String oid, boolean nullParameters) {
+            this.keyAlgorithm = keyAlgorithm;
+            this.jcaName = jcaName;
+            this.oid = oid;
+            this.nullParameters = nullParameters;
+        }
+
+        static SignatureAlgorithm forKey(PrivateKey key) {
+            // Ed25519 keys report either their own name or the family name, depending on how they were generated
+            var algorithm = "EdDSA".equals(key.getAlgorithm()) ? ED25519.keyAlgorithm : key.getAlgorithm();
+            return Arrays.stream(values())
+                    .filter(candidate -> candidate.keyAlgorithm.equalsIgnoreCase(algorithm))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unsupported key algorithm " + key.getAlgorithm()));
+        }
+
+        byte[] identifier() {
+            return nullParameters ? sequence(objectIdentifier(oid), encode(NULL, new byte[0])) : sequence(objectIdentifier(oid));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package io.kroxylicious.testing.kafka.invm;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Deletes directory trees on a few background threads, so that callers need not wait for the deletion, and so that
+ * the directories of clusters closed together are deleted in parallel.
+ * A directory is first moved aside, so that it disappears from its original location immediately.
+ * Deletions still pending when the JVM shuts down are completed before it exits, and directories reaped once
+ * shutdown has begun are deleted by the caller.
+ */
+final class DirectoryReaper {
+
+    private static final System.Logger LOGGER = System.getLogger(DirectoryReaper.class.getName());
+    private static final long SHUTDOWN_DRAIN_SECONDS = 60;
+
+    // Deletion is mostly waiting on the file system, so a few threads suffice to overlap it
+    private static final int THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ThreadPoolExecutor REAPER = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+        Thread thread = new Thread(runnable, "kafka-directory-reaper-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        REAPER.allowCoreThreadTimeOut(true);
+        Runtime.getRuntime().addShutdownHook(new Thread(DirectoryReaper::drain, "kafka-directory-reaper-drain"));
+    }
+
+    private DirectoryReaper() {
+    }
+
+    /**
+     * Schedules the deletion of the given directory tree.
+     *
+     * @param directory the directory
+     * @return a future which completes once the directory tree has been deleted
+     */
+    static CompletableFuture<Void> reap(Path directory) {
+        if (!Files.exists(directory)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Path doomed = moveAside(directory);
+        try {
+            return CompletableFuture.runAsync(() -> delete(doomed), REAPER);
+        }
+        catch (RejectedExecutionException e) {
+            // The JVM is shutting down, so there is no one left to wait for
+            delete(doomed);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private static Path moveAside(Path directory) {
+        var aside = directory.resolveSibling(directory.getFileName() + ".deleting-" + UUID.randomUUID());
+        try {
+            return Files.move(directory, aside, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            // Delete it where it is
+            return directory;
+        }
+        catch (IOException e) {
+            LOGGER.log(System.Logger.Level.DEBUG, "Failed to move {0} aside, deleting it in place", directory, e);
+            return directory;
+        }
+    }
+
+    private static void delete(Path directory) {
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.deleteIfExists(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) throws IOException {
+                    if (e instanceof NoSuchFileException) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    throw e;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                    Files.deleteIfExists(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        catch (IOException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Failed to delete {0}: {1}", directory, e.getMessage(), e);
+        }
+    }
+
+    private static void drain() {
+        REAPER.shutdown();
+        try {
+            if (!REAPER.awaitTermination(SHUTDOWN_DRAIN_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.log(System.Logger.Level.WARNING, "Timed out deleting temporary directories on shutdown");
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
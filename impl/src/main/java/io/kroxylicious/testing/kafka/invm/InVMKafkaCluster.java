@@ -6,29 +6,41 @@
 
 package io.kroxylicious.testing.kafka.invm;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Comparator;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.apache.kafka.common.utils.Time;
 import org.apache.zookeeper.server.ServerCnxnFactory;
 import org.apache.zookeeper.server.ZooKeeperServer;
+import org.awaitility.Awaitility;
 import org.jetbrains.annotations.NotNull;
 
-import io.kroxylicious.testing.kafka.api.KafkaCluster;
+import io.kroxylicious.testing.kafka.api.ClusterStartupReport;
+import io.kroxylicious.testing.kafka.api.ResettableKafkaCluster;
+import io.kroxylicious.testing.kafka.common.ClusterStartupRecorder;
 import io.kroxylicious.testing.kafka.common.KafkaClusterConfig;
 import io.kroxylicious.testing.kafka.common.ListeningSocketPreallocator;
+import io.kroxylicious.testing.kafka.common.LogStorage;
 import io.kroxylicious.testing.kafka.common.Utils;
 
 import kafka.server.KafkaConfig;
@@ -43,8 +55,18 @@ import static org.apache.kafka.server.common.MetadataVersion.MINIMUM_BOOTSTRAP_V
 /**
  * Configures and manages an in process (within the JVM) Kafka cluster.
  */
-public class InVMKafkaCluster implements KafkaCluster {
+public class InVMKafkaCluster implements ResettableKafkaCluster {
     private static final System.Logger LOGGER = System.getLogger(InVMKafkaCluster.class.getName());
+    private static final int STARTUP_TIMEOUT_SECONDS = 120;
+    private static final Path SHARED_MEMORY_DIR = Path.of("/dev/shm");
+
+    /**
+     * environment variable specifying a directory of log directory templates.  When set, the log directories of the
+     * first cluster with a given configuration to shut down cleanly are reset and captured as a template, which later
+     * clusters with the same configuration, possibly in later JVMs, copy before starting, rather than formatting
+     * empty log directories.  Clusters using TLS never use templates.
+     */
+    public static final String TEST_CLUSTER_LOG_DIR_TEMPLATES = "TEST_CLUSTER_LOG_DIR_TEMPLATES";
 
     private final KafkaClusterConfig clusterConfig;
     private final Path tempDirectory;
@@ -55,7 +77,12 @@ public class InVMKafkaCluster implements KafkaCluster {
     private final List<ServerSocket> externalPorts;
     private final List<ServerSocket> anonPorts;
     private final List<ServerSocket> interBrokerPorts;
-    private final List<ServerSocket> controllerPorts;
+    private final Map<Integer, ServerSocket> controllerPorts;
+    private final Path templatesDirectory;
+    private final String templateFingerprint;
+    private final boolean restoredFromTemplate;
+    private volatile boolean started;
+    private final ClusterStartupRecorder startupRecorder = new ClusterStartupRecorder(InVMKafkaCluster.class.getSimpleName());
 
     /**
      * Instantiates a new in VM kafka cluster.
@@ -65,12 +92,24 @@ public class InVMKafkaCluster implements KafkaCluster {
     public InVMKafkaCluster(KafkaClusterConfig clusterConfig) {
         this.clusterConfig = clusterConfig;
         try {
-            tempDirectory = Files.createTempDirectory("kafka");
-            tempDirectory.toFile().deleteOnExit();
+            tempDirectory = createTempDirectory(clusterConfig.getLogStorage());
+
+            templatesDirectory = LogDirTemplates.templatesDirectory(clusterConfig).orElse(null);
+            templateFingerprint = templatesDirectory == null ? null : LogDirTemplates.fingerprint(clusterConfig);
+            if (templatesDirectory != null) {
+                try (var phase = startupRecorder.phase("log directory template restore")) {
+                    restoredFromTemplate = LogDirTemplates.restore(templatesDirectory, templateFingerprint, tempDirectory);
+                }
+            }
+            else {
+                restoredFromTemplate = false;
+            }
 
-            // kraft mode: per-broker: 1 external port + 1 inter-broker port + 1 controller port + 1 anon port
+            // kraft mode: per-broker: 1 external port + 1 inter-broker port + 1 anon port; per-controller: 1 controller port
             // zk mode: per-cluster: 1 zk port; per-broker: 1 external port + 1 inter-broker port + 1 anon port
-            try (var preallocator = new ListeningSocketPreallocator()) {
+            // The ports stay reserved until just before each node binds them, see releaseNodePorts
+            try (var phase = startupRecorder.phase("port preallocation")) {
+                var preallocator = new ListeningSocketPreallocator();
                 externalPorts = preallocator.preAllocateListeningSockets(clusterConfig.getBrokersNum()).collect(Collectors.toUnmodifiableList());
                 anonPorts = preallocator.preAllocateListeningSockets(clusterConfig.getBrokersNum()).collect(Collectors.toUnmodifiableList());
                 interBrokerPorts = preallocator.preAllocateListeningSockets(clusterConfig.getBrokersNum()).collect(Collectors.toUnmodifiableList());
@@ -79,6 +118,8 @@ public class InVMKafkaCluster implements KafkaCluster {
 
             if (!clusterConfig.isKraftMode()) {
                 final Integer zookeeperPort = controllerPorts.get(0).getLocalPort();
+                // ZooKeeper binds its port on creation of the factory
+                releasePorts(controllerPorts.values());
                 zooFactory = ServerCnxnFactory.createFactory(new InetSocketAddress("localhost", zookeeperPort), 1024);
 
                 var zoo = tempDirectory.resolve("zoo");
@@ -112,17 +153,25 @@ public class InVMKafkaCluster implements KafkaCluster {
 
                 @Override
                 public EndpointPair getControllerEndpoint(int brokerId) {
-                    return buildEndpointPair(controllerPorts, brokerId);
+                    return buildEndpointPair(controllerPorts.get(brokerId));
                 }
 
                 private EndpointPair buildEndpointPair(List<ServerSocket> portRange, int brokerId) {
-                    var port = portRange.get(brokerId);
+                    return buildEndpointPair(portRange.get(brokerId));
+                }
+
+                private EndpointPair buildEndpointPair(ServerSocket port) {
                     return EndpointPair.builder().bind(new Endpoint("0.0.0.0", port.getLocalPort())).connect(new Endpoint("localhost", port.getLocalPort())).build();
                 }
             };
             Supplier<KafkaClusterConfig.KafkaEndpoints> clusterEndpointSupplier = () -> kafkaEndpoints;
 
-            servers = clusterConfig.getBrokerConfigs(clusterEndpointSupplier).map(this::buildKafkaServer).collect(Collectors.toList());
+            List<KafkaClusterConfig.ConfigHolder> configs;
+            // Includes generating any TLS certificates
+            try (var phase = startupRecorder.phase("broker configuration")) {
+                configs = clusterConfig.getBrokerConfigs(clusterEndpointSupplier).collect(Collectors.toList());
+            }
+            servers = configs.stream().map(this::buildKafkaServer).collect(Collectors.toList());
 
         }
         catch (IOException e) {
@@ -130,18 +179,26 @@ public class InVMKafkaCluster implements KafkaCluster {
         }
     }
 
-    private List<ServerSocket> allocateControllerPorts(KafkaClusterConfig clusterConfig, ListeningSocketPreallocator preallocator) {
-        if (clusterConfig.isKraftMode()) {
-            return preallocator.preAllocateListeningSockets(clusterConfig.getBrokersNum()).collect(Collectors.toUnmodifiableList());
-        }
-        else {
-            return preallocator.preAllocateListeningSockets(1).collect(Collectors.toUnmodifiableList());
+    private static Path createTempDirectory(LogStorage.Medium medium) throws IOException {
+        if (medium == LogStorage.Medium.RAM) {
+            if (Files.isDirectory(SHARED_MEMORY_DIR) && Files.isWritable(SHARED_MEMORY_DIR)) {
+                return Files.createTempDirectory(SHARED_MEMORY_DIR, "kafka");
+            }
+            LOGGER.log(System.Logger.Level.WARNING, "{0} is not available, falling back to storing logs on disk", SHARED_MEMORY_DIR);
         }
+        return Files.createTempDirectory("kafka");
+    }
+
+    private Map<Integer, ServerSocket> allocateControllerPorts(KafkaClusterConfig clusterConfig, ListeningSocketPreallocator preallocator) {
+        // In ZooKeeper mode the single "controller" port is ZooKeeper's
+        var controllerIds = clusterConfig.isKraftMode() ? clusterConfig.getControllerNodeIds().boxed().collect(Collectors.toList()) : List.of(0);
+        var ports = preallocator.preAllocateListeningSockets(controllerIds.size()).iterator();
+        return controllerIds.stream().collect(Collectors.toUnmodifiableMap(Function.identity(), controllerId -> ports.next()));
     }
 
     @NotNull
     private Server buildKafkaServer(KafkaClusterConfig.ConfigHolder c) {
-        KafkaConfig config = buildBrokerConfig(c, tempDirectory);
+        KafkaConfig config = buildBrokerConfig(c);
         Option<String> threadNamePrefix = Option.apply(null);
 
         boolean kraftMode = clusterConfig.isKraftMode();
@@ -149,7 +206,13 @@ public class InVMKafkaCluster implements KafkaCluster {
             var directories = StorageTool.configToLogDirectories(config);
             var clusterId = c.getKafkaKraftClusterId();
             var metaProperties = StorageTool.buildMetadataProperties(clusterId, config);
-            StorageTool.formatCommand(System.out, directories, metaProperties, MINIMUM_BOOTSTRAP_VERSION, true);
+            if (restoredFromTemplate) {
+                // The template's directories are already formatted, but for the cluster it was captured from
+                LogDirTemplates.adoptClusterId(logDirectory(c), clusterId);
+            }
+            try (var phase = startupRecorder.phase("storage formatting")) {
+                StorageTool.formatCommand(System.out, directories, metaProperties, MINIMUM_BOOTSTRAP_VERSION, true);
+            }
             return new KafkaRaftServer(config, Time.SYSTEM, threadNamePrefix);
         }
         else {
@@ -157,33 +220,115 @@ public class InVMKafkaCluster implements KafkaCluster {
         }
     }
 
+    private Path logDirectory(KafkaClusterConfig.ConfigHolder c) {
+        return tempDirectory.resolve(String.format("broker-%d", c.getBrokerNum()));
+    }
+
     @NotNull
-    private KafkaConfig buildBrokerConfig(KafkaClusterConfig.ConfigHolder c, Path tempDirectory) {
+    private KafkaConfig buildBrokerConfig(KafkaClusterConfig.ConfigHolder c) {
         Properties properties = new Properties();
         properties.putAll(c.getProperties());
-        Path logsDir = tempDirectory.resolve(String.format("broker-%d", c.getBrokerNum()));
-        properties.setProperty(KafkaConfig.LogDirProp(), logsDir.toAbsolutePath().toString());
+        properties.setProperty(KafkaConfig.LogDirProp(), logDirectory(c).toAbsolutePath().toString());
+        if (clusterConfig.getLogStorage() == LogStorage.Medium.RAM) {
+            // Flushing memory-backed storage buys no durability, so leave it entirely to the OS unless the test says otherwise
+            properties.putIfAbsent(KafkaConfig.LogFlushIntervalMessagesProp(), Long.toString(Long.MAX_VALUE));
+            properties.putIfAbsent(KafkaConfig.LogFlushIntervalMsProp(), Long.toString(Long.MAX_VALUE));
+            properties.putIfAbsent(KafkaConfig.LogFlushSchedulerIntervalMsProp(), Long.toString(Long.MAX_VALUE));
+        }
         LOGGER.log(System.Logger.Level.DEBUG, "Generated config {0}", properties);
         return new KafkaConfig(properties);
     }
 
     @Override
     public void start() {
-        if (zooFactory != null) {
-            try {
-                zooFactory.startup(zooServer);
-            }
-            catch (IOException e) {
-                throw new UncheckedIOException(e);
+        var threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(servers.size(), runnable -> {
+            Thread thread = new Thread(runnable, "kafka-cluster-startup-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            // Brokers start as soon as ZooKeeper is listening. In KRaft mode there's nothing to wait for, as the
+            // brokers need to start concurrently with each other to form the controller quorum.
+            CompletableFuture<Void> zooKeeperStarted = zooFactory == null ? CompletableFuture.completedFuture(null)
+                    : CompletableFuture.runAsync(this::startZooKeeper, executor);
+            var brokersReady = IntStream.range(0, servers.size())
+                    .mapToObj(brokerNum -> zooKeeperStarted
+                            .thenRunAsync(() -> {
+                                releaseNodePorts(brokerNum);
+                                try (var phase = startupRecorder.phase("server startup")) {
+                                    servers.get(brokerNum).startup();
+                                }
+                            }, executor)
+                            .thenRunAsync(() -> {
+                                try (var phase = startupRecorder.phase("broker readiness")) {
+                                    awaitBrokerReady(brokerNum);
+                                }
+                            }, executor))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(brokersReady).get(STARTUP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (clusterConfig.isKraftMode()) {
+                // The metadata cache of a KRaft broker is not exposed by KafkaRaftServer, so probe the cluster using a client
+                try (var phase = startupRecorder.phase("cluster readiness")) {
+                    Utils.awaitExpectedBrokerCountInCluster(clusterConfig.getAnonConnectConfigForCluster(kafkaEndpoints), STARTUP_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+                            clusterConfig.getBrokersNum());
+                }
             }
-            catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException(e);
+            started = true;
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
+            throw new RuntimeException("startup failed", e.getCause());
+        }
+        catch (TimeoutException e) {
+            throw new RuntimeException("startup timed out", e);
+        }
+        finally {
+            executor.shutdownNow();
         }
+    }
+
+    private void awaitBrokerReady(int brokerNum) {
+        var server = servers.get(brokerNum);
+        if (server instanceof KafkaServer) {
+            // A ZooKeeper-based broker's view of the cluster is directly observable, so there's no need for a client round trip
+            var metadataCache = ((KafkaServer) server).metadataCache();
+            int expectedBrokerCount = clusterConfig.getBrokersNum();
+            Awaitility.await()
+                    .pollDelay(Duration.ZERO)
+                    .pollInterval(Utils.backoffPollInterval())
+                    .atMost(STARTUP_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .until(() -> metadataCache.getAliveBrokers().size() >= expectedBrokerCount);
+        }
+    }
+
+    private void startZooKeeper() {
+        try (var phase = startupRecorder.phase("zookeeper startup")) {
+            zooFactory.startup(zooServer);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public ClusterStartupReport getStartupReport() {
+        return startupRecorder.report();
+    }
 
-        servers.stream().parallel().forEach(Server::startup);
-        Utils.awaitExpectedBrokerCountInCluster(clusterConfig.getAnonConnectConfigForCluster(kafkaEndpoints), 120, TimeUnit.SECONDS, clusterConfig.getBrokersNum());
+    @Override
+    public void reset() {
+        Utils.resetClusterState(clusterConfig.getAnonConnectConfigForCluster(kafkaEndpoints), 120, TimeUnit.SECONDS);
     }
 
     @Override
@@ -209,6 +354,7 @@ public class InVMKafkaCluster implements KafkaCluster {
     @Override
     public void close() throws Exception {
         try {
+            boolean captureTemplate = prepareTemplateCapture();
             try {
                 servers.stream().parallel().forEach(Server::shutdown);
             }
@@ -217,16 +363,31 @@ public class InVMKafkaCluster implements KafkaCluster {
                     zooServer.shutdown(true);
                 }
             }
+            if (captureTemplate) {
+                LogDirTemplates.capture(templatesDirectory, templateFingerprint, tempDirectory);
+            }
         }
         finally {
             releaseAllPorts();
-            if (tempDirectory.toFile().exists()) {
-                try (var s = Files.walk(tempDirectory)
-                        .sorted(Comparator.reverseOrder())
-                        .map(Path::toFile)) {
-                    s.forEach(File::delete);
-                }
-            }
+            DirectoryReaper.reap(tempDirectory);
+        }
+    }
+
+    /**
+     * Determines whether this cluster's log directories should be captured as a template once it has shut down,
+     * resetting its state if so, so that later clusters start without any of the state of this cluster's test.
+     */
+    private boolean prepareTemplateCapture() {
+        if (templatesDirectory == null || restoredFromTemplate || !started || LogDirTemplates.exists(templatesDirectory, templateFingerprint)) {
+            return false;
+        }
+        try {
+            reset();
+            return true;
+        }
+        catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Not capturing a log directory template, as the cluster could not be reset: {0}", e.getMessage(), e);
+            return false;
         }
     }
 
@@ -236,13 +397,27 @@ public class InVMKafkaCluster implements KafkaCluster {
     }
 
     private void releaseAllPorts() {
-        releasePorts(controllerPorts);
+        releasePorts(controllerPorts.values());
         releasePorts(interBrokerPorts);
         releasePorts(anonPorts);
         releasePorts(externalPorts);
     }
 
-    private void releasePorts(List<ServerSocket> ports) {
+    /**
+     * Releases the ports reserved for the given node, immediately before it binds them.
+     * Kafka can only bind its listeners itself, so this narrows, rather than closes, the window in which another
+     * process could take a port.
+     */
+    private void releaseNodePorts(int nodeId) {
+        if (clusterConfig.isBrokerNode(nodeId)) {
+            releasePorts(List.of(externalPorts.get(nodeId), anonPorts.get(nodeId), interBrokerPorts.get(nodeId)));
+        }
+        if (clusterConfig.isKraftMode() && controllerPorts.containsKey(nodeId)) {
+            releasePorts(List.of(controllerPorts.get(nodeId)));
+        }
+    }
+
+    private void releasePorts(Collection<ServerSocket> ports) {
         ports.forEach(serverSocket -> {
             try {
                 serverSocket.close();
@@ -12,12 +12,16 @@ import java.util.List;
 import io.kroxylicious.testing.kafka.api.KafkaCluster;
 import io.kroxylicious.testing.kafka.api.KafkaClusterProvisioningStrategy;
 import io.kroxylicious.testing.kafka.common.KafkaClusterConfig;
+import io.kroxylicious.testing.kafka.common.ProvisioningStatistics;
 
 /**
  * The in VM provisioning strategy.
  */
 public class InVMProvisioningStrategy implements KafkaClusterProvisioningStrategy {
 
+    // The estimate until a cluster with the same constraints has been provisioned
+    private static final Duration DEFAULT_ESTIMATE = Duration.ofMillis(500);
+
     /**
      * Instantiates a new In vm provisioning strategy.
      */
@@ -42,6 +46,11 @@ public class InVMProvisioningStrategy implements KafkaClusterProvisioningStrateg
 
     @Override
     public Duration estimatedProvisioningTimeMs(List<Annotation> constraints, Class<? extends KafkaCluster> declarationType) {
-        return Duration.ofMillis(500);
+        return ProvisioningStatistics.session().estimate(InVMProvisioningStrategy.class, constraints, declarationType).orElse(DEFAULT_ESTIMATE);
+    }
+
+    @Override
+    public void recordProvisioningTime(List<Annotation> constraints, Class<? extends KafkaCluster> declarationType, Duration provisioningTime) {
+        ProvisioningStatistics.session().record(InVMProvisioningStrategy.class, constraints, declarationType, provisioningTime);
     }
 }
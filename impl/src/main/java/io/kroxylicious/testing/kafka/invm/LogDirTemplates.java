@@ -0,0 +1,237 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+
+package io.kroxylicious.testing.kafka.invm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.apache.kafka.common.utils.AppInfoParser;
+
+import io.kroxylicious.testing.kafka.common.KafkaClusterConfig;
+
+/**
+ * Templates of the on-disk state of freshly booted clusters, so that a later cluster with an identical configuration,
+ * possibly in a later JVM, can start from a formatted, already initialised state rather than from empty log directories.
+ * <p>
+ * A template is captured from the first cluster with a given configuration to shut down cleanly, once its state has been
+ * reset, and is copied into the temporary directory of later clusters before they start. Templates are keyed by a
+ * fingerprint of the Kafka version and the generated server properties (with the ports, which are chosen afresh for
+ * each cluster, replaced by placeholders).
+ * </p>
+ */
+final class LogDirTemplates {
+
+    private static final System.Logger LOGGER = System.getLogger(LogDirTemplates.class.getName());
+    private static final String META_PROPERTIES = "meta.properties";
+    private static final String CLUSTER_ID_PROPERTY = "cluster.id";
+    // The suffix of a partition directory whose deletion is pending
+    private static final String DELETED_SUFFIX = "-delete";
+
+    private LogDirTemplates() {
+    }
+
+    /**
+     * Gets the directory holding the templates, if templates are enabled for a cluster with the given configuration.
+     *
+     * @param clusterConfig the cluster config
+     * @return the directory holding the templates, or empty if templates are disabled or the cluster can't use them
+     */
+    static Optional<Path> templatesDirectory(KafkaClusterConfig clusterConfig) {
+        var directory = System.getenv(InVMKafkaCluster.TEST_CLUSTER_LOG_DIR_TEMPLATES);
+        if (directory == null || directory.isBlank()) {
+            return Optional.empty();
+        }
+        var securityProtocol = clusterConfig.getSecurityProtocol();
+        if (securityProtocol != null && securityProtocol.contains("SSL")) {
+            // The server properties name key stores specific to each cluster, so would never match a template
+            LOGGER.log(System.Logger.Level.DEBUG, "Not using log directory templates for a cluster using TLS");
+            return Optional.empty();
+        }
+        return Optional.of(Path.of(directory));
+    }
+
+    /**
+     * Computes the fingerprint of a cluster.
+     *
+     * @param clusterConfig the cluster config
+     * @return the fingerprint
+     */
+    static String fingerprint(KafkaClusterConfig clusterConfig) {
+        var placeholder = KafkaClusterConfig.KafkaEndpoints.EndpointPair.builder()
+                .bind(new KafkaClusterConfig.KafkaEndpoints.Endpoint("0.0.0.0", 0))
+                .connect(new KafkaClusterConfig.KafkaEndpoints.Endpoint("localhost", 0))
+                .build();
+        KafkaClusterConfig.KafkaEndpoints placeholderEndpoints = new KafkaClusterConfig.KafkaEndpoints() {
+            @Override
+            public EndpointPair getClientEndpoint(int brokerId) {
+                return placeholder;
+            }
+
+            @Override
+            public EndpointPair getAnonEndpoint(int brokerId) {
+                return placeholder;
+            }
+
+            @Override
+            public EndpointPair getInterBrokerEndpoint(int brokerId) {
+                return placeholder;
+            }
+
+            @Override
+            public EndpointPair getControllerEndpoint(int brokerId) {
+                return placeholder;
+            }
+        };
+
+        var description = new StringBuilder();
+        description.append(AppInfoParser.getVersion()).append('\n');
+        clusterConfig.getBrokerConfigs(() -> placeholderEndpoints).forEach(holder -> {
+            description.append("node ").append(holder.getBrokerNum()).append('\n');
+            new TreeMap<>(holder.getProperties()).forEach((key, value) -> description.append(key).append('=').append(value).append('\n'));
+        });
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(description.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Determines whether there is a template with the given fingerprint.
+     *
+     * @param templatesDirectory the directory holding the templates
+     * @param fingerprint the fingerprint
+     * @return true if the template exists
+     */
+    static boolean exists(Path templatesDirectory, String fingerprint) {
+        return Files.isDirectory(templatesDirectory.resolve(fingerprint));
+    }
+
+    /**
+     * Copies the template with the given fingerprint, if there is one, into the given directory.
+     * The template is copied rather than linked, as Kafka modifies its log segments and indexes in place.
+     *
+     * @param templatesDirectory the directory holding the templates
+     * @param fingerprint the fingerprint
+     * @param target the directory to copy the template into
+     * @return true if the template was copied
+     */
+    static boolean restore(Path templatesDirectory, String fingerprint, Path target) {
+        var template = templatesDirectory.resolve(fingerprint);
+        if (!Files.isDirectory(template)) {
+            return false;
+        }
+        try {
+            copy(template, target);
+            LOGGER.log(System.Logger.Level.DEBUG, "Restored log directory template {0} into {1}", template, target);
+            return true;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to restore log directory template " + template, e);
+        }
+    }
+
+    /**
+     * Captures the given directory, whose cluster must have been shut down cleanly, as the template with the given
+     * fingerprint, unless that template already exists. Failure to capture the template is logged rather than thrown,
+     * as it does not affect the cluster.
+     *
+     * @param templatesDirectory the directory holding the templates
+     * @param fingerprint the fingerprint
+     * @param source the directory to capture
+     */
+    static void capture(Path templatesDirectory, String fingerprint, Path source) {
+        var template = templatesDirectory.resolve(fingerprint);
+        // Copy aside then move into place, so that a template is never seen partially written
+        var staging = templatesDirectory.resolve(fingerprint + ".capturing-" + UUID.randomUUID());
+        try {
+            Files.createDirectories(templatesDirectory);
+            copy(source, staging);
+            Files.move(staging, template, StandardCopyOption.ATOMIC_MOVE);
+            LOGGER.log(System.Logger.Level.DEBUG, "Captured log directory template {0} from {1}", template, source);
+        }
+        catch (FileAlreadyExistsException e) {
+            // Another cluster got there first
+            DirectoryReaper.reap(staging);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Not capturing log directory templates, as {0} does not support atomic moves", templatesDirectory);
+            DirectoryReaper.reap(staging);
+        }
+        catch (IOException e) {
+            // A non-empty target directory may be reported as a generic failure
+            if (!Files.isDirectory(template)) {
+                LOGGER.log(System.Logger.Level.WARNING, "Failed to capture log directory template {0}: {1}", template, e.getMessage(), e);
+            }
+            DirectoryReaper.reap(staging);
+        }
+    }
+
+    /**
+     * Rewrites the cluster id recorded in a KRaft node's log directory, so that a node restored from a template
+     * belongs to the cluster being started rather than to the cluster the template was captured from.
+     *
+     * @param logDirectory the node's log directory
+     * @param clusterId the cluster id
+     */
+    static void adoptClusterId(Path logDirectory, String clusterId) {
+        var metaPropertiesFile = logDirectory.resolve(META_PROPERTIES);
+        if (!Files.isRegularFile(metaPropertiesFile)) {
+            return;
+        }
+        try {
+            var metaProperties = new Properties();
+            try (var in = Files.newInputStream(metaPropertiesFile)) {
+                metaProperties.load(in);
+            }
+            metaProperties.setProperty(CLUSTER_ID_PROPERTY, clusterId);
+            try (var out = Files.newOutputStream(metaPropertiesFile)) {
+                metaProperties.store(out, null);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void copy(Path source, Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (dir.getFileName().toString().endsWith(DELETED_SUFFIX)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                Files.createDirectories(target.resolve(source.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.copy(file, target.resolve(source.relativize(file)), StandardCopyOption.REPLACE_EXISTING);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
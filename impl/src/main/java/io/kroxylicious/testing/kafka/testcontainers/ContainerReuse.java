@@ -0,0 +1,236 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.testcontainers;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.utility.DockerImageName;
+
+import com.github.dockerjava.api.model.Container;
+
+import io.kroxylicious.testing.kafka.common.KafkaClusterConfig;
+
+/**
+ * Support for leaving the containers of a cluster running when it is stopped, so that a later cluster with an identical
+ * configuration, possibly in a later JVM, can attach to them rather than starting containers of its own.
+ * <p>
+ * The containers of a reusable cluster are labelled with a fingerprint of the images and the generated server
+ * properties (with the host ports, which are chosen afresh for each cluster, replaced by placeholders), and with the
+ * details needed to attach to them.
+ * </p>
+ * <p>
+ * A cluster's containers are used by one cluster at a time, across all the JVMs using the same Docker daemon on this
+ * host, such as parallel test forks. The cluster holds an exclusive lock on a file named after its instance, in the
+ * directory given by the {@code java.io.tmpdir} system property, for as long as it uses the containers.
+ * </p>
+ */
+final class ContainerReuse {
+
+    private static final System.Logger LOGGER = System.getLogger(ContainerReuse.class.getName());
+
+    private static final String LABEL_PREFIX = "io.kroxylicious.testing.";
+    private static final String FINGERPRINT_LABEL = LABEL_PREFIX + "fingerprint";
+    private static final String INSTANCE_LABEL = LABEL_PREFIX + "instance";
+    private static final String CLUSTER_ID_LABEL = LABEL_PREFIX + "cluster-id";
+    private static final String NODE_LABEL = LABEL_PREFIX + "node";
+    private static final String CLIENT_PORT_LABEL = LABEL_PREFIX + "client-port";
+    private static final String ANON_PORT_LABEL = LABEL_PREFIX + "anon-port";
+
+    // The instances in use by this JVM, which must not be attached to by another cluster, and the locks which keep
+    // them from being attached to by other JVMs. Guarded by ContainerReuse.class
+    private static final Map<String, FileChannel> CLAIMED = new HashMap<>();
+
+    private ContainerReuse() {
+    }
+
+    /**
+     * A running cluster, previously left running for reuse.
+     *
+     * @param instance the identifier of the cluster's containers
+     * @param clusterId the cluster id
+     * @param clientPorts the host port of each broker's client listener, by node id
+     * @param anonPorts the host port of each broker's anonymous listener, by node id
+     */
+    record RunningCluster(String instance, String clusterId, Map<Integer, Integer> clientPorts, Map<Integer, Integer> anonPorts) {}
+
+    /**
+     * Determines whether the containers of the cluster with the given configuration should be reused.
+     *
+     * @param clusterConfig the cluster config
+     * @return true if reuse is enabled and the cluster can be reused
+     */
+    static boolean isEnabled(KafkaClusterConfig clusterConfig) {
+        if (!Boolean.parseBoolean(System.getenv(TestcontainersKafkaCluster.TEST_CLUSTER_CONTAINER_REUSE))) {
+            return false;
+        }
+        var securityProtocol = clusterConfig.getSecurityProtocol();
+        if (securityProtocol != null && securityProtocol.contains("SSL")) {
+            // Clients of a later JVM would not trust the certificates, which are issued by an authority specific to this JVM
+            LOGGER.log(System.Logger.Level.DEBUG, "Not reusing the containers of a cluster using TLS");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Computes the fingerprint of a cluster.
+     *
+     * @param kafkaImage the kafka image
+     * @param zookeeperImage the zookeeper image
+     * @param clusterConfig the cluster config
+     * @param placeholderEndpoints endpoints which use placeholders for the host ports
+     * @return the fingerprint
+     */
+    static String fingerprint(DockerImageName kafkaImage, DockerImageName zookeeperImage, KafkaClusterConfig clusterConfig,
+                              KafkaClusterConfig.KafkaEndpoints placeholderEndpoints) {
+        var description = new StringBuilder();
+        description.append(kafkaImage.asCanonicalNameString()).append('\n');
+        if (!clusterConfig.isKraftMode()) {
+            description.append(zookeeperImage.asCanonicalNameString()).append('\n');
+        }
+        clusterConfig.getBrokerConfigs(() -> placeholderEndpoints).forEach(holder -> {
+            description.append("node ").append(holder.getBrokerNum()).append('\n');
+            new TreeMap<>(holder.getProperties()).forEach((key, value) -> description.append(key).append('=').append(value).append('\n'));
+        });
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(description.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Claims a running cluster with the given fingerprint for this JVM, if there is one.
+     *
+     * @param fingerprint the fingerprint
+     * @param expectedContainers the number of containers in the cluster
+     * @return the running cluster, or empty if there is none, or it is incomplete, or all are already claimed
+     */
+    static Optional<RunningCluster> claim(String fingerprint, int expectedContainers) {
+        List<Container> containers = DockerClientFactory.instance().client().listContainersCmd()
+                .withLabelFilter(Map.of(FINGERPRINT_LABEL, fingerprint))
+                .withStatusFilter(List.of("running"))
+                .exec();
+        var byInstance = containers.stream().collect(Collectors.groupingBy(container -> container.getLabels().get(INSTANCE_LABEL)));
+        for (var entry : byInstance.entrySet()) {
+            if (entry.getValue().size() == expectedContainers && claim(entry.getKey())) {
+                return Optional.of(toRunningCluster(entry.getKey(), entry.getValue()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Claims the given instance for this JVM, locking it against other JVMs.
+     *
+     * @param instance the instance
+     * @return true if the instance was not already claimed, by this JVM or another
+     */
+    static synchronized boolean claim(String instance) {
+        if (CLAIMED.containsKey(instance)) {
+            return false;
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(lockFile(instance), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (channel.tryLock() == null) {
+                channel.close();
+                return false;
+            }
+            CLAIMED.put(instance, channel);
+            return true;
+        }
+        catch (IOException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Failed to lock containers {0}, not reusing them: {1}", instance, e.getMessage());
+            closeQuietly(channel);
+            return false;
+        }
+    }
+
+    /**
+     * Releases a claimed instance, leaving its containers running for reuse.
+     *
+     * @param instance the instance
+     */
+    static synchronized void release(String instance) {
+        // Closing the channel releases the lock. The file is left in place, as deleting it could let two JVMs lock
+        // different files for the same instance.
+        closeQuietly(CLAIMED.remove(instance));
+    }
+
+    private static Path lockFile(String instance) {
+        return Path.of(System.getProperty("java.io.tmpdir"), "kroxylicious-testing-containers-" + instance + ".lock");
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        }
+        catch (IOException e) {
+            LOGGER.log(System.Logger.Level.DEBUG, "Failed to close lock file", e);
+        }
+    }
+
+    /**
+     * Gets the labels to be applied to a container of a reusable cluster.
+     *
+     * @param fingerprint the fingerprint of the cluster
+     * @param instance the identifier of the cluster's containers
+     * @param holder the config of the node run by the container, or null for the ZooKeeper container
+     * @return the labels
+     */
+    static Map<String, String> labels(String fingerprint, String instance, KafkaClusterConfig.ConfigHolder holder) {
+        var labels = new HashMap<String, String>();
+        labels.put(FINGERPRINT_LABEL, fingerprint);
+        labels.put(INSTANCE_LABEL, instance);
+        if (holder != null) {
+            labels.put(CLUSTER_ID_LABEL, holder.getKafkaKraftClusterId());
+            labels.put(NODE_LABEL, Integer.toString(holder.getBrokerNum()));
+            if (holder.isBroker()) {
+                labels.put(CLIENT_PORT_LABEL, Integer.toString(holder.getExternalPort()));
+                labels.put(ANON_PORT_LABEL, Integer.toString(holder.getAnonPort()));
+            }
+        }
+        return labels;
+    }
+
+    private static RunningCluster toRunningCluster(String instance, List<Container> containers) {
+        var clientPorts = new HashMap<Integer, Integer>();
+        var anonPorts = new HashMap<Integer, Integer>();
+        String clusterId = null;
+        for (Container container : containers) {
+            var labels = container.getLabels();
+            if (labels.containsKey(CLUSTER_ID_LABEL)) {
+                clusterId = labels.get(CLUSTER_ID_LABEL);
+            }
+            if (labels.containsKey(CLIENT_PORT_LABEL)) {
+                int nodeId = Integer.parseInt(labels.get(NODE_LABEL));
+                clientPorts.put(nodeId, Integer.parseInt(labels.get(CLIENT_PORT_LABEL)));
+                anonPorts.put(nodeId, Integer.parseInt(labels.get(ANON_PORT_LABEL)));
+            }
+        }
+        return new RunningCluster(instance, clusterId, Map.copyOf(clientPorts), Map.copyOf(anonPorts));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.testcontainers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.images.RemoteDockerImage;
+import org.testcontainers.utility.DockerImageName;
+
+import com.github.dockerjava.api.exception.NotFoundException;
+
+/**
+ * Makes images available to the docker daemon ahead of the containers which need them, pulling images concurrently
+ * with each other and with the rest of the test run. Each image is fetched at most once per JVM.
+ * <p>
+ * If the environment variable {@link TestcontainersKafkaCluster#TEST_CLUSTER_IMAGE_CACHE_DIR} names a directory, an image which is not already
+ * present is loaded from a tarball in that directory (as written by {@code docker save}) when there is one, rather
+ * than pulled. This allows runners without registry access to use images saved in advance.
+ * </p>
+ */
+final class ImagePrefetcher {
+
+    private static final System.Logger LOGGER = System.getLogger(ImagePrefetcher.class.getName());
+    private static final Map<DockerImageName, CompletableFuture<Void>> FETCHES = new ConcurrentHashMap<>();
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "kafka-image-prefetch-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ImagePrefetcher() {
+    }
+
+    /**
+     * Starts fetching the given images, unless they're already fetched or being fetched.
+     *
+     * @param images the images
+     * @return a future which completes once all the images are available
+     */
+    static CompletableFuture<Void> prefetch(DockerImageName... images) {
+        return CompletableFuture.allOf(Stream.of(images)
+                // A failed fetch is retried
+                .map(image -> FETCHES.compute(image, (i, existing) -> existing == null || existing.isCompletedExceptionally()
+                        ? CompletableFuture.runAsync(() -> fetch(i), EXECUTOR)
+                        : existing))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    private static void fetch(DockerImageName image) {
+        var cacheDir = System.getenv(TestcontainersKafkaCluster.TEST_CLUSTER_IMAGE_CACHE_DIR);
+        if (cacheDir != null && !isPresent(image)) {
+            var tarball = Path.of(cacheDir, image.asCanonicalNameString().replaceAll("[^A-Za-z0-9._-]", "_") + ".tar");
+            if (Files.isRegularFile(tarball)) {
+                LOGGER.log(System.Logger.Level.DEBUG, "Loading image {0} from {1}", image, tarball);
+                try (var in = Files.newInputStream(tarball)) {
+                    DockerClientFactory.instance().client().loadImageCmd(in).exec();
+                }
+                catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        // Resolves the image, pulling it if it's still not present
+        new RemoteDockerImage(image).get();
+    }
+
+    private static boolean isPresent(DockerImageName image) {
+        try {
+            DockerClientFactory.instance().client().inspectImageCmd(image.asCanonicalNameString()).exec();
+            return true;
+        }
+        catch (NotFoundException e) {
+            return false;
+        }
+    }
+}
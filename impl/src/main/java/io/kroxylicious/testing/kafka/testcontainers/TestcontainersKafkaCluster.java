@@ -21,9 +21,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.IntUnaryOperator;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -31,6 +35,7 @@ import java.util.stream.Stream;
 import org.apache.kafka.common.config.SslConfigs;
 import org.junit.jupiter.api.TestInfo;
 import org.rnorth.ducttape.unreliables.Unreliables;
+import org.testcontainers.containers.ContainerLaunchException;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.Network;
 import org.testcontainers.containers.output.OutputFrame;
@@ -41,18 +46,21 @@ import org.testcontainers.utility.DockerImageName;
 
 import com.github.dockerjava.api.command.InspectContainerResponse;
 
-import io.kroxylicious.testing.kafka.api.KafkaCluster;
+import io.kroxylicious.testing.kafka.api.ClusterStartupReport;
+import io.kroxylicious.testing.kafka.api.ResettableKafkaCluster;
+import io.kroxylicious.testing.kafka.common.ClusterStartupRecorder;
 import io.kroxylicious.testing.kafka.common.KafkaClusterConfig;
 import io.kroxylicious.testing.kafka.common.ListeningSocketPreallocator;
 
 import lombok.SneakyThrows;
 
 import static io.kroxylicious.testing.kafka.common.Utils.awaitExpectedBrokerCountInCluster;
+import static io.kroxylicious.testing.kafka.common.Utils.resetClusterState;
 
 /**
  * Provides an easy way to launch a Kafka cluster with multiple brokers in a container
  */
-public class TestcontainersKafkaCluster implements Startable, KafkaCluster {
+public class TestcontainersKafkaCluster implements Startable, ResettableKafkaCluster {
 
     private static final System.Logger LOGGER = System.getLogger(TestcontainersKafkaCluster.class.getName());
     /**
@@ -71,6 +79,23 @@ public class TestcontainersKafkaCluster implements Startable, KafkaCluster {
     private static DockerImageName DEFAULT_KAFKA_IMAGE = DockerImageName.parse(QUAY_KAFKA_IMAGE_REPO + ":latest-snapshot");
     private static DockerImageName DEFAULT_ZOOKEEPER_IMAGE = DockerImageName.parse(QUAY_ZOOKEEPER_IMAGE_REPO + ":latest-snapshot");
     private static final int READY_TIMEOUT_SECONDS = 120;
+
+    /**
+     * environment variable enabling the reuse of containers, true or false.  When enabled, the containers of a
+     * cluster are left running when it is stopped, and a later cluster with the same images and configuration, possibly
+     * in a later JVM, attaches to them and resets their state rather than starting new containers.  For the containers
+     * to survive the JVM, Testcontainers' own reuse support must also be enabled, for example with
+     * {@code TESTCONTAINERS_REUSE_ENABLE=true}.  Clusters using TLS are never reused.
+     */
+    public static final String TEST_CLUSTER_CONTAINER_REUSE = "TEST_CLUSTER_CONTAINER_REUSE";
+
+    /**
+     * environment variable specifying a directory of image tarballs, as written by {@code docker save}, from which an
+     * image that is not already present is loaded rather than pulled.  A tarball is named after the image, with any
+     * characters other than letters, digits, '.', '_' and '-' replaced by '_', for example
+     * {@code quay.io_ogunalp_kafka-native_latest.tar}.
+     */
+    public static final String TEST_CLUSTER_IMAGE_CACHE_DIR = "TEST_CLUSTER_IMAGE_CACHE_DIR";
     private final DockerImageName kafkaImage;
     private final DockerImageName zookeeperImage;
     private final KafkaClusterConfig clusterConfig;
@@ -86,8 +111,12 @@ public class TestcontainersKafkaCluster implements Startable, KafkaCluster {
     }
 
     private final KafkaClusterConfig.KafkaEndpoints kafkaEndpoints;
-    private List<ServerSocket> clientPorts;
-    private List<ServerSocket> anonPorts;
+    private final ListeningSocketPreallocator portPreallocator;
+    // Identifies the containers when they are reusable, otherwise null
+    private final String reuseInstance;
+    private final boolean reattached;
+    private final CompletableFuture<Void> imagesFetched;
+    private final ClusterStartupRecorder startupRecorder = new ClusterStartupRecorder(TestcontainersKafkaCluster.class.getSimpleName());
 
     /**
      * Instantiates a new Testcontainers kafka cluster.
@@ -110,7 +139,35 @@ public class TestcontainersKafkaCluster implements Startable, KafkaCluster {
 
         this.kafkaImage = Optional.ofNullable(kafkaImage).orElse(DEFAULT_KAFKA_IMAGE);
         this.zookeeperImage = Optional.ofNullable(zookeeperImage).orElse(DEFAULT_ZOOKEEPER_IMAGE);
+
+        String fingerprint = ContainerReuse.isEnabled(clusterConfig)
+                ? ContainerReuse.fingerprint(this.kafkaImage, this.zookeeperImage, clusterConfig, buildEndpoints(clusterConfig, nodeId -> CLIENT_PORT, nodeId -> ANON_PORT))
+                : null;
+        Optional<ContainerReuse.RunningCluster> running = fingerprint == null ? Optional.empty()
+                : ContainerReuse.claim(fingerprint, clusterConfig.getNumNodes() + (clusterConfig.isKraftMode() ? 0 : 1));
+        this.portPreallocator = new ListeningSocketPreallocator();
+
+        if (running.isPresent()) {
+            var runningCluster = running.get();
+            LOGGER.log(Level.INFO, "Reusing the running containers of cluster {0}", runningCluster.clusterId());
+            this.reuseInstance = runningCluster.instance();
+            this.reattached = true;
+            this.clusterConfig = clusterConfig.toBuilder().kafkaKraftClusterId(runningCluster.clusterId()).build();
+            this.kafkaEndpoints = buildEndpoints(this.clusterConfig, runningCluster.clientPorts()::get, runningCluster.anonPorts()::get);
+            this.zookeeper = null;
+            this.brokers = List.of();
+            this.imagesFetched = CompletableFuture.completedFuture(null);
+            return;
+        }
+        this.reuseInstance = fingerprint == null ? null : UUID.randomUUID().toString();
+        this.reattached = false;
+        if (reuseInstance != null) {
+            ContainerReuse.claim(reuseInstance);
+        }
         this.clusterConfig = clusterConfig;
+        // Pull the images in the background while the test run continues, rather than when the containers are started.
+        // They're usually already being fetched, having been prefetched when the session started
+        this.imagesFetched = prefetchImages(clusterConfig.isKraftMode(), this.kafkaImage, this.zookeeperImage);
 
         var name = Optional.ofNullable(clusterConfig.getTestInfo())
                 .map(TestInfo::getDisplayName)
@@ -127,22 +184,75 @@ public class TestcontainersKafkaCluster implements Startable, KafkaCluster {
                     .withNetwork(network)
                     // .withEnv("QUARKUS_LOG_LEVEL", "DEBUG") // Enables org.apache.zookeeper logging too
                     .withNetworkAliases("zookeeper");
+            if (reuseInstance != null) {
+                this.zookeeper.withLabels(ContainerReuse.labels(fingerprint, reuseInstance, null)).withReuse(true);
+            }
         }
 
-        try (var preallocator = new ListeningSocketPreallocator()) {
-            clientPorts = preallocator.preAllocateListeningSockets(clusterConfig.getBrokersNum()).collect(Collectors.toList());
-            anonPorts = preallocator.preAllocateListeningSockets(clusterConfig.getBrokersNum()).collect(Collectors.toList());
+        // The ports stay reserved until just before the brokers are started
+        List<Integer> clientPorts;
+        List<Integer> anonPorts;
+        try (var phase = startupRecorder.phase("port preallocation")) {
+            clientPorts = portPreallocator.preAllocateListeningSockets(clusterConfig.getBrokersNum()).map(ServerSocket::getLocalPort)
+                    .collect(Collectors.toList());
+            anonPorts = portPreallocator.preAllocateListeningSockets(clusterConfig.getBrokersNum()).map(ServerSocket::getLocalPort)
+                    .collect(Collectors.toList());
         }
 
-        kafkaEndpoints = new KafkaClusterConfig.KafkaEndpoints() {
+        kafkaEndpoints = buildEndpoints(clusterConfig, clientPorts::get, anonPorts::get);
+
+        Supplier<KafkaClusterConfig.KafkaEndpoints> endPointConfigSupplier = () -> kafkaEndpoints;
+        Supplier<KafkaClusterConfig.KafkaEndpoints.Endpoint> zookeeperEndpointSupplier = () -> new KafkaClusterConfig.KafkaEndpoints.Endpoint("zookeeper",
+                TestcontainersKafkaCluster.ZOOKEEPER_PORT);
+        // Includes generating any TLS certificates
+        try (var phase = startupRecorder.phase("broker configuration")) {
+            this.brokers = buildContainers(endPointConfigSupplier, name, fingerprint);
+        }
+    }
+
+    private List<KafkaContainer> buildContainers(Supplier<KafkaClusterConfig.KafkaEndpoints> endPointConfigSupplier, String name, String fingerprint) {
+        return clusterConfig.getBrokerConfigs(endPointConfigSupplier).map(holder -> {
+            String netAlias = networkAlias(this.clusterConfig, holder.getBrokerNum());
+            KafkaContainer kafkaContainer = new KafkaContainer(this.kafkaImage)
+                    .withName(name)
+                    .withNetwork(this.network)
+                    .withNetworkAliases(netAlias);
+
+            copyHostKeyStoreToContainer(kafkaContainer, holder.getProperties(), SslConfigs.SSL_TRUSTSTORE_LOCATION_CONFIG);
+            copyHostKeyStoreToContainer(kafkaContainer, holder.getProperties(), SslConfigs.SSL_KEYSTORE_LOCATION_CONFIG);
+
+            kafkaContainer
+                    // .withEnv("QUARKUS_LOG_LEVEL", "DEBUG") // Enables org.apache.kafka logging too
+                    .withEnv("SERVER_PROPERTIES_FILE", "/cnf/server.properties")
+                    .withEnv("SERVER_CLUSTER_ID", holder.getKafkaKraftClusterId())
+                    .withCopyToContainer(Transferable.of(propertiesToBytes(holder.getProperties()), 0644), "/cnf/server.properties")
+                    .withStartupTimeout(Duration.ofMinutes(2));
+            if (holder.isBroker()) {
+                // controller-only nodes have no listeners which need to be reachable from outside the network
+                kafkaContainer.addFixedExposedPort(holder.getExternalPort(), CLIENT_PORT);
+                kafkaContainer.addFixedExposedPort(holder.getAnonPort(), ANON_PORT);
+            }
+
+            if (reuseInstance != null) {
+                kafkaContainer.withLabels(ContainerReuse.labels(fingerprint, reuseInstance, holder)).withReuse(true);
+            }
+
+            // The brokers don't depend on the ZooKeeper container, so that they're created while it boots, but each is only
+            // started once ZooKeeper is up, see start()
+            return kafkaContainer;
+        }).collect(Collectors.toList());
+    }
+
+    static KafkaClusterConfig.KafkaEndpoints buildEndpoints(KafkaClusterConfig clusterConfig, IntUnaryOperator clientPorts, IntUnaryOperator anonPorts) {
+        return new KafkaClusterConfig.KafkaEndpoints() {
             @Override
             public EndpointPair getClientEndpoint(int brokerId) {
-                return buildExposedEndpoint(brokerId, CLIENT_PORT, clientPorts);
+                return buildExposedEndpoint(CLIENT_PORT, clientPorts.applyAsInt(brokerId));
             }
 
             @Override
             public EndpointPair getAnonEndpoint(int brokerId) {
-                return buildExposedEndpoint(brokerId, ANON_PORT, anonPorts);
+                return buildExposedEndpoint(ANON_PORT, anonPorts.applyAsInt(brokerId));
             }
 
             @Override
@@ -155,55 +265,48 @@ public class TestcontainersKafkaCluster implements Startable, KafkaCluster {
             public EndpointPair getControllerEndpoint(int brokerId) {
                 if (clusterConfig.isKraftMode()) {
                     return EndpointPair.builder().bind(new Endpoint("0.0.0.0", CONTROLLER_PORT))
-                            .connect(new Endpoint(String.format("broker-%d", brokerId), CONTROLLER_PORT)).build();
+                            .connect(new Endpoint(networkAlias(clusterConfig, brokerId), CONTROLLER_PORT)).build();
                 }
                 else {
                     return EndpointPair.builder().bind(new Endpoint("0.0.0.0", ZOOKEEPER_PORT)).connect(new Endpoint("zookeeper", ZOOKEEPER_PORT)).build();
                 }
             }
 
-            private EndpointPair buildExposedEndpoint(int brokerId, int internalPort, List<ServerSocket> externalPortRange) {
+            private EndpointPair buildExposedEndpoint(int internalPort, int externalPort) {
                 return EndpointPair.builder()
                         .bind(new Endpoint("0.0.0.0", internalPort))
-                        .connect(new Endpoint("localhost", externalPortRange.get(brokerId).getLocalPort()))
+                        .connect(new Endpoint("localhost", externalPort))
                         .build();
             }
         };
+    }
 
-        Supplier<KafkaClusterConfig.KafkaEndpoints> endPointConfigSupplier = () -> kafkaEndpoints;
-        Supplier<KafkaClusterConfig.KafkaEndpoints.Endpoint> zookeeperEndpointSupplier = () -> new KafkaClusterConfig.KafkaEndpoints.Endpoint("zookeeper",
-                TestcontainersKafkaCluster.ZOOKEEPER_PORT);
-        this.brokers = clusterConfig.getBrokerConfigs(endPointConfigSupplier).map(holder -> {
-            String netAlias = "broker-" + holder.getBrokerNum();
-            KafkaContainer kafkaContainer = new KafkaContainer(this.kafkaImage)
-                    .withName(name)
-                    .withNetwork(this.network)
-                    .withNetworkAliases(netAlias);
-
-            copyHostKeyStoreToContainer(kafkaContainer, holder.getProperties(), SslConfigs.SSL_TRUSTSTORE_LOCATION_CONFIG);
-            copyHostKeyStoreToContainer(kafkaContainer, holder.getProperties(), SslConfigs.SSL_KEYSTORE_LOCATION_CONFIG);
+    private static String networkAlias(KafkaClusterConfig clusterConfig, int nodeId) {
+        return String.format(clusterConfig.isBrokerNode(nodeId) ? "broker-%d" : "controller-%d", nodeId);
+    }
 
-            kafkaContainer
-                    // .withEnv("QUARKUS_LOG_LEVEL", "DEBUG") // Enables org.apache.kafka logging too
-                    .withEnv("SERVER_PROPERTIES_FILE", "/cnf/server.properties")
-                    .withEnv("SERVER_CLUSTER_ID", holder.getKafkaKraftClusterId())
-                    .withCopyToContainer(Transferable.of(propertiesToBytes(holder.getProperties()), 0644), "/cnf/server.properties")
-                    .withStartupTimeout(Duration.ofMinutes(2));
-            kafkaContainer.addFixedExposedPort(holder.getExternalPort(), CLIENT_PORT);
-            kafkaContainer.addFixedExposedPort(holder.getAnonPort(), ANON_PORT);
+    private void setDefaultKafkaImage(String kafkaVersion) {
+        DEFAULT_KAFKA_IMAGE = DockerImageName.parse(QUAY_KAFKA_IMAGE_REPO + ":" + versionTag(kafkaVersion));
+        DEFAULT_ZOOKEEPER_IMAGE = DockerImageName.parse(QUAY_ZOOKEEPER_IMAGE_REPO + ":" + versionTag(kafkaVersion));
+    }
 
-            if (!this.clusterConfig.isKraftMode()) {
-                kafkaContainer.dependsOn(this.zookeeper);
-            }
-            return kafkaContainer;
-        }).collect(Collectors.toList());
+    private static String versionTag(String kafkaVersion) {
+        return (kafkaVersion == null || kafkaVersion.equals("latest")) ? "latest" : "latest-kafka-" + kafkaVersion;
     }
 
-    private void setDefaultKafkaImage(String kafkaVersion) {
-        String kafkaVersionTag = (kafkaVersion == null || kafkaVersion.equals("latest")) ? "latest" : "latest-kafka-" + kafkaVersion;
+    /**
+     * Starts fetching, in the background, the default images of a cluster with the given configuration.
+     *
+     * @param clusterConfig the cluster config
+     */
+    static void prefetchImages(KafkaClusterConfig clusterConfig) {
+        var versionTag = versionTag(clusterConfig.getKafkaVersion());
+        prefetchImages(clusterConfig.isKraftMode(), DockerImageName.parse(QUAY_KAFKA_IMAGE_REPO + ":" + versionTag),
+                DockerImageName.parse(QUAY_ZOOKEEPER_IMAGE_REPO + ":" + versionTag));
+    }
 
-        DEFAULT_KAFKA_IMAGE = DockerImageName.parse(QUAY_KAFKA_IMAGE_REPO + ":" + kafkaVersionTag);
-        DEFAULT_ZOOKEEPER_IMAGE = DockerImageName.parse(QUAY_ZOOKEEPER_IMAGE_REPO + ":" + kafkaVersionTag);
+    private static CompletableFuture<Void> prefetchImages(boolean kraftMode, DockerImageName kafkaImage, DockerImageName zookeeperImage) {
+        return kraftMode ? ImagePrefetcher.prefetch(kafkaImage) : ImagePrefetcher.prefetch(kafkaImage, zookeeperImage);
     }
 
     private static void copyHostKeyStoreToContainer(KafkaContainer container, Properties properties, String key) {
@@ -254,25 +357,53 @@ public class TestcontainersKafkaCluster implements Startable, KafkaCluster {
     @SneakyThrows
     public void start() {
         try {
+            if (reattached) {
+                awaitClusterReady();
+                // The state left behind by the cluster's previous user is unknown
+                try (var phase = startupRecorder.phase("reset")) {
+                    reset();
+                }
+                return;
+            }
 
-            createNetwork();
+            try (var phase = startupRecorder.phase("network creation")) {
+                createNetwork();
+            }
+            try (var phase = startupRecorder.phase("image fetch")) {
+                imagesFetched.get(READY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
 
-            if (zookeeper != null) {
-                zookeeper.start();
+            portPreallocator.close();
+            try (var phase = startupRecorder.phase("container startup")) {
+                CompletableFuture<Void> zookeeperStarted = zookeeper == null ? CompletableFuture.completedFuture(null) : Startables.deepStart(Stream.of(zookeeper));
+                brokers.forEach(broker -> broker.startAfter(zookeeperStarted));
+                CompletableFuture.allOf(zookeeperStarted, Startables.deepStart(brokers.stream())).get(READY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
             }
-            Startables.deepStart(brokers.stream()).get(READY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-            awaitExpectedBrokerCountInCluster(clusterConfig.getAnonConnectConfigForCluster(kafkaEndpoints), READY_TIMEOUT_SECONDS, TimeUnit.SECONDS,
-                    clusterConfig.getBrokersNum());
+            awaitClusterReady();
         }
         catch (InterruptedException | ExecutionException | TimeoutException e) {
             if (e instanceof InterruptedException) {
                 Thread.currentThread().interrupt();
             }
+            // Containers which failed to start are not worth reusing
+            stopContainers();
             stop();
             throw new RuntimeException("startup failed or timed out", e);
         }
     }
 
+    private void awaitClusterReady() {
+        try (var phase = startupRecorder.phase("cluster readiness")) {
+            awaitExpectedBrokerCountInCluster(clusterConfig.getAnonConnectConfigForCluster(kafkaEndpoints), READY_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+                    clusterConfig.getBrokersNum());
+        }
+    }
+
+    @Override
+    public ClusterStartupReport getStartupReport() {
+        return startupRecorder.report();
+    }
+
     // Workaround for https://github.com/kroxylicious/kroxylicious-junit5-extension/issues/30
     // This fix can be removed once https://github.com/testcontainers/testcontainers-java/issues/6667 is resolved.
     private void createNetwork() {
@@ -291,6 +422,11 @@ public class TestcontainersKafkaCluster implements Startable, KafkaCluster {
                 });
     }
 
+    @Override
+    public void reset() {
+        resetClusterState(clusterConfig.getAnonConnectConfigForCluster(kafkaEndpoints), READY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
     @Override
     public void close() {
         this.stop();
@@ -303,6 +439,21 @@ public class TestcontainersKafkaCluster implements Startable, KafkaCluster {
 
     @Override
     public void stop() {
+        try {
+            if (reuseInstance == null) {
+                stopContainers();
+            }
+            else {
+                LOGGER.log(Level.DEBUG, "Leaving the containers of cluster {0} running for reuse", getClusterId());
+                ContainerReuse.release(reuseInstance);
+            }
+        }
+        finally {
+            portPreallocator.close();
+        }
+    }
+
+    private void stopContainers() {
         allContainers().parallel().forEach(GenericContainer::stop);
     }
 
@@ -329,6 +480,8 @@ public class TestcontainersKafkaCluster implements Startable, KafkaCluster {
     // to expose addFixedExposedPort to for use.
     public static class KafkaContainer extends LoggingGenericContainer<KafkaContainer> {
 
+        private volatile Future<?> startGate;
+
         /**
          * Instantiates a new Kafka container.
          *
@@ -342,6 +495,34 @@ public class TestcontainersKafkaCluster implements Startable, KafkaCluster {
             super.addFixedExposedPort(hostPort, containerPort);
         }
 
+        /**
+         * Delays starting the container, once it has been created, until the given future completes.
+         *
+         * @param gate the future
+         */
+        void startAfter(Future<?> gate) {
+            this.startGate = gate;
+        }
+
+        @Override
+        protected void containerIsCreated(String containerId) {
+            super.containerIsCreated(containerId);
+            var gate = startGate;
+            if (gate == null) {
+                return;
+            }
+            try {
+                gate.get(READY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ContainerLaunchException("Interrupted waiting to start container " + containerId, e);
+            }
+            catch (ExecutionException | TimeoutException e) {
+                throw new ContainerLaunchException("Container " + containerId + " can't be started as a container it depends on failed to start", e);
+            }
+        }
+
     }
 
     /**
@@ -12,12 +12,19 @@ import java.util.List;
 import io.kroxylicious.testing.kafka.api.KafkaCluster;
 import io.kroxylicious.testing.kafka.api.KafkaClusterProvisioningStrategy;
 import io.kroxylicious.testing.kafka.common.KafkaClusterConfig;
+import io.kroxylicious.testing.kafka.common.LogStorage;
+import io.kroxylicious.testing.kafka.common.ProvisioningStatistics;
 
 /**
  * The type Testcontainers provisioning strategy.
  */
 public class TestcontainersProvisioningStrategy implements KafkaClusterProvisioningStrategy {
 
+    // The estimate until a cluster with the same constraints has been provisioned. It's pessimistic, as starting
+    // containers may involve pulling images, so that an in-VM cluster whose time has been learned isn't displaced by
+    // containers which may not even be available.
+    private static final Duration DEFAULT_ESTIMATE = Duration.ofSeconds(30);
+
     /**
      * Instantiates a new Testcontainers provisioning strategy.
      */
@@ -26,6 +33,10 @@ public class TestcontainersProvisioningStrategy implements KafkaClusterProvision
 
     @Override
     public boolean supportsAnnotation(Annotation constraint) {
+        if (constraint instanceof LogStorage) {
+            // Container logs are stored wherever the container runtime puts them
+            return ((LogStorage) constraint).value() == LogStorage.Medium.DISK;
+        }
         return KafkaClusterConfig.supportsConstraint(constraint.annotationType());
     }
 
@@ -40,8 +51,18 @@ public class TestcontainersProvisioningStrategy implements KafkaClusterProvision
         return new TestcontainersKafkaCluster(config);
     }
 
+    @Override
+    public void prepare(List<Annotation> constraints, Class<? extends KafkaCluster> declarationType) {
+        TestcontainersKafkaCluster.prefetchImages(KafkaClusterConfig.fromConstraints(constraints));
+    }
+
     @Override
     public Duration estimatedProvisioningTimeMs(List<Annotation> constraints, Class<? extends KafkaCluster> declarationType) {
-        return Duration.ofSeconds(1);
+        return ProvisioningStatistics.session().estimate(TestcontainersProvisioningStrategy.class, constraints, declarationType).orElse(DEFAULT_ESTIMATE);
+    }
+
+    @Override
+    public void recordProvisioningTime(List<Annotation> constraints, Class<? extends KafkaCluster> declarationType, Duration provisioningTime) {
+        ProvisioningStatistics.session().record(TestcontainersProvisioningStrategy.class, constraints, declarationType, provisioningTime);
     }
 }
@@ -0,0 +1,42 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.common;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import io.kroxylicious.testing.kafka.api.ClusterStartupReport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClusterStartupRecorderTest {
+
+    @Test
+    void reportIsEmptyBeforeAnyPhase() {
+        var recorder = new ClusterStartupRecorder("test");
+        assertThat(recorder.report()).isSameAs(ClusterStartupReport.empty());
+    }
+
+    @Test
+    void recordsPhasesInOrderOfBeginning() throws Exception {
+        var recorder = new ClusterStartupRecorder("test");
+        try (var outer = recorder.phase("outer")) {
+            try (var first = recorder.phase("inner")) {
+                Thread.sleep(5);
+            }
+            try (var second = recorder.phase("inner")) {
+                Thread.sleep(5);
+            }
+        }
+
+        var report = recorder.report();
+        assertThat(report.getPhases()).containsOnlyKeys("outer", "inner");
+        assertThat(report.getPhases().keySet()).containsExactly("outer", "inner");
+        assertThat(report.getPhases().get("inner")).isGreaterThanOrEqualTo(Duration.ofMillis(10));
+        assertThat(report.getTotal()).isEqualTo(report.getPhases().get("outer"));
+    }
+}
@@ -5,6 +5,9 @@
  */
 package io.kroxylicious.testing.kafka.common;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -113,6 +116,7 @@ class KafkaClusterConfigTest {
         // Given
 
         kafkaClusterConfigBuilder.brokersNum(3);
+        kafkaClusterConfigBuilder.kraftControllers(3);
         final KafkaClusterConfig kafkaClusterConfig = kafkaClusterConfigBuilder.build();
 
         // When
@@ -159,6 +163,90 @@ class KafkaClusterConfigTest {
         assertThat(anonBootstrapServers).contains("localhost:12094");
     }
 
+    @Test
+    void shouldBuildControllerBootstrapAddressForDedicatedControllers() {
+        // Given
+        kafkaClusterConfigBuilder.brokersNum(2);
+        kafkaClusterConfigBuilder.kraftControllers(3);
+        kafkaClusterConfigBuilder.dedicatedControllers(true);
+        final KafkaClusterConfig kafkaClusterConfig = kafkaClusterConfigBuilder.build();
+
+        // When
+        final String controllerBootstrapServers = kafkaClusterConfig.buildControllerBootstrapServers(endpointConfig);
+
+        // Then
+        assertThat(controllerBootstrapServers).isEqualTo("localhost:10094,localhost:10095,localhost:10096");
+    }
+
+    @Test
+    void shouldMakeEachCombinedControllerAQuorumVoter() {
+        // Given
+        kafkaClusterConfigBuilder.brokersNum(3);
+        kafkaClusterConfigBuilder.kraftControllers(3);
+        final KafkaClusterConfig kafkaClusterConfig = kafkaClusterConfigBuilder.build();
+
+        // When
+        final List<KafkaClusterConfig.ConfigHolder> nodes = kafkaClusterConfig.getBrokerConfigs(() -> endpointConfig).collect(Collectors.toList());
+
+        // Then
+        assertThat(nodes).hasSize(3);
+        assertThat(nodes).allSatisfy(node -> {
+            assertThat(node.isBroker()).isTrue();
+            assertThat(node.getProperties())
+                    .containsEntry("process.roles", "broker,controller")
+                    .containsEntry("controller.quorum.voters", "0@//localhost:10092,1@//localhost:10093,2@//localhost:10094");
+        });
+    }
+
+    @Test
+    void shouldConfigureDedicatedControllersAsControllerOnlyNodes() {
+        // Given
+        kafkaClusterConfigBuilder.brokersNum(2);
+        kafkaClusterConfigBuilder.kraftControllers(3);
+        kafkaClusterConfigBuilder.dedicatedControllers(true);
+        final KafkaClusterConfig kafkaClusterConfig = kafkaClusterConfigBuilder.build();
+
+        // When
+        final List<KafkaClusterConfig.ConfigHolder> nodes = kafkaClusterConfig.getBrokerConfigs(() -> endpointConfig).collect(Collectors.toList());
+
+        // Then
+        assertThat(nodes).hasSize(5);
+        assertThat(nodes.subList(0, 2)).allSatisfy(node -> {
+            assertThat(node.isBroker()).isTrue();
+            assertThat(node.getProperties()).containsEntry("process.roles", "broker");
+        });
+        assertThat(nodes.subList(2, 5)).allSatisfy(node -> {
+            assertThat(node.isBroker()).isFalse();
+            assertThat(node.getExternalPort()).isNull();
+            assertThat(node.getProperties())
+                    .containsEntry("process.roles", "controller")
+                    .containsEntry("listeners", "CONTROLLER://0.0.0.0:" + (CONTROLLER_BASE_PORT + node.getBrokerNum()))
+                    .doesNotContainKey("advertised.listeners");
+        });
+        assertThat(nodes).allSatisfy(node -> assertThat(node.getProperties())
+                .containsEntry("controller.quorum.voters", "2@//localhost:10094,3@//localhost:10095,4@//localhost:10096"));
+    }
+
+    @Test
+    void shouldStoreLogsOnDiskByDefault() {
+        assertThat(KafkaClusterConfig.fromConstraints(List.of()).getLogStorage()).isEqualTo(LogStorage.Medium.DISK);
+    }
+
+    @Test
+    void shouldApplyLogStorageConstraint() {
+        final KafkaClusterConfig kafkaClusterConfig = KafkaClusterConfig.fromConstraints(List.of(ConstraintUtils.logStorage(LogStorage.Medium.RAM)));
+
+        assertThat(kafkaClusterConfig.getLogStorage()).isEqualTo(LogStorage.Medium.RAM);
+    }
+
+    @Test
+    void shouldApplyTlsKeyAlgorithmConstraint() {
+        final KafkaClusterConfig kafkaClusterConfig = KafkaClusterConfig.fromConstraints(List.of(ConstraintUtils.tls(Tls.KeyAlgorithm.EC_P256)));
+
+        assertThat(kafkaClusterConfig.getBrokerKeytoolCertificateGenerator().getKeyAlgorithm()).isEqualTo(Tls.KeyAlgorithm.EC_P256);
+        assertThat(kafkaClusterConfig.getSecurityProtocol()).isEqualTo("SSL");
+    }
+
     static class EndpointConfig implements KafkaClusterConfig.KafkaEndpoints {
 
         @Override
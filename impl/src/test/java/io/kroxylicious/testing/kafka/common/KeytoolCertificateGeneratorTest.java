@@ -0,0 +1,157 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.common;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509TrustManager;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeytoolCertificateGeneratorTest {
+
+    @Test
+    void generatesCertificateEntry() throws Exception {
+        var generator = new KeytoolCertificateGenerator();
+        generator.generateSelfSignedCertificateEntry("test@kroxylicious.io", "localhost", "Dev", "Kroxylicious.io", null, null, "US");
+
+        var keyStore = KeyStore.getInstance(new File(generator.getKeyStoreLocation()), generator.getPassword().toCharArray());
+        assertThat(keyStore.isKeyEntry("localhost")).isTrue();
+        assertThat(keyStore.getKey("localhost", generator.getPassword().toCharArray())).isNotNull();
+
+        var chain = keyStore.getCertificateChain("localhost");
+        assertThat(chain).hasSize(2);
+        var certificate = (X509Certificate) chain[0];
+        var authority = (X509Certificate) chain[1];
+        certificate.checkValidity();
+        certificate.verify(authority.getPublicKey());
+        assertThat(certificate.getVersion()).isEqualTo(3);
+        assertThat(certificate.getSigAlgName()).isEqualTo("SHA256withRSA");
+        assertThat(certificate.getIssuerX500Principal()).isEqualTo(authority.getSubjectX500Principal());
+        assertThat(authority.getBasicConstraints()).isNotNegative();
+        assertThat(certificate.getSubjectX500Principal().getName()).contains("CN=localhost", "OU=Dev", "C=US");
+        assertThat(certificate.getSubjectAlternativeNames()).containsExactly(List.of(2, "localhost"));
+    }
+
+    @Test
+    void generatesCertificateEntryForEachKeyAlgorithm() throws Exception {
+        var expectedSignatureAlgorithms = Map.of(
+                Tls.KeyAlgorithm.RSA_2048, "SHA256withRSA",
+                Tls.KeyAlgorithm.EC_P256, "SHA256withECDSA",
+                Tls.KeyAlgorithm.ED25519, "Ed25519");
+        for (Tls.KeyAlgorithm keyAlgorithm : Tls.KeyAlgorithm.values()) {
+            var generator = new KeytoolCertificateGenerator(keyAlgorithm);
+            generator.generateSelfSignedCertificateEntry("test@kroxylicious.io", "localhost", "Dev", "Kroxylicious.io", null, null, "US");
+
+            var keyStore = KeyStore.getInstance(new File(generator.getKeyStoreLocation()), generator.getPassword().toCharArray());
+            var chain = keyStore.getCertificateChain("localhost");
+            var certificate = (X509Certificate) chain[0];
+            certificate.verify(chain[1].getPublicKey());
+            assertThat(certificate.getSigAlgName()).as(keyAlgorithm.name()).isEqualTo(expectedSignatureAlgorithms.get(keyAlgorithm));
+        }
+    }
+
+    @Test
+    void omitsSubjectAlternativeNameForWildcardDomain() throws Exception {
+        var generator = new KeytoolCertificateGenerator();
+        generator.generateSelfSignedCertificateEntry("test@kroxylicious.io", "*.example.com", "Dev", "Kroxylicious.io", null, null, "US");
+
+        var keyStore = KeyStore.getInstance(new File(generator.getKeyStoreLocation()), generator.getPassword().toCharArray());
+        var certificate = (X509Certificate) keyStore.getCertificate("*.example.com");
+        assertThat(certificate.getSubjectX500Principal().getName()).contains("CN=*.example.com");
+        assertThat(certificate.getSubjectAlternativeNames()).isNull();
+    }
+
+    @Test
+    void reusesKeyForIdenticalRequests() throws Exception {
+        var first = new KeytoolCertificateGenerator();
+        first.generateSelfSignedCertificateEntry("test@kroxylicious.io", "localhost", "Dev", "Kroxylicious.io", null, null, "US");
+        var second = new KeytoolCertificateGenerator();
+        second.generateSelfSignedCertificateEntry("test@kroxylicious.io", "localhost", "Dev", "Kroxylicious.io", null, null, "US");
+        var different = new KeytoolCertificateGenerator();
+        different.generateSelfSignedCertificateEntry("test@kroxylicious.io", "client", "Dev", "Kroxylicious.io", null, null, "US");
+
+        var firstKeyStore = KeyStore.getInstance(new File(first.getKeyStoreLocation()), first.getPassword().toCharArray());
+        var secondKeyStore = KeyStore.getInstance(new File(second.getKeyStoreLocation()), second.getPassword().toCharArray());
+        var differentKeyStore = KeyStore.getInstance(new File(different.getKeyStoreLocation()), different.getPassword().toCharArray());
+        assertThat(secondKeyStore.getCertificate("localhost")).isEqualTo(firstKeyStore.getCertificate("localhost"));
+        assertThat(differentKeyStore.getCertificate("client")).isNotEqualTo(firstKeyStore.getCertificate("localhost"));
+        assertThat(differentKeyStore.getCertificateChain("client")[1]).isEqualTo(firstKeyStore.getCertificateChain("localhost")[1]);
+    }
+
+    @Test
+    void trustStoreTrustsOnlyItsOwnCertificates() throws Exception {
+        var server = new KeytoolCertificateGenerator();
+        server.generateSelfSignedCertificateEntry("test@kroxylicious.io", "localhost", "Dev", "Kroxylicious.io", null, null, "US");
+        server.generateTrustStore(server.getCertFilePath(), "server");
+        var other = new KeytoolCertificateGenerator();
+        other.generateSelfSignedCertificateEntry("test@kroxylicious.io", "other", "Dev", "Kroxylicious.io", null, null, "US");
+
+        var trustStore = KeyStore.getInstance(new File(server.getTrustStoreLocation()), server.getPassword().toCharArray());
+        var trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(trustStore);
+        var trustManager = (X509TrustManager) trustManagerFactory.getTrustManagers()[0];
+
+        var serverChain = KeyStore.getInstance(new File(server.getKeyStoreLocation()), server.getPassword().toCharArray()).getCertificateChain("localhost");
+        var otherChain = KeyStore.getInstance(new File(other.getKeyStoreLocation()), other.getPassword().toCharArray()).getCertificateChain("other");
+        trustManager.checkServerTrusted(Arrays.copyOf(serverChain, serverChain.length, X509Certificate[].class), "RSA");
+        assertThatThrownBy(() -> trustManager.checkServerTrusted(Arrays.copyOf(otherChain, otherChain.length, X509Certificate[].class), "RSA"))
+                .isInstanceOf(CertificateException.class);
+    }
+
+    @Test
+    void writesCertificateFileMatchingKeyStore() throws Exception {
+        var generator = new KeytoolCertificateGenerator();
+        generator.generateSelfSignedCertificateEntry("test@kroxylicious.io", "localhost", "Dev", "Kroxylicious.io", null, null, "US");
+
+        var keyStore = KeyStore.getInstance(new File(generator.getKeyStoreLocation()), generator.getPassword().toCharArray());
+        try (var in = Files.newInputStream(Path.of(generator.getCertFilePath()))) {
+            var certificates = CertificateFactory.getInstance("X.509").generateCertificates(in);
+            assertThat(certificates).containsExactly(keyStore.getCertificate("localhost"));
+        }
+    }
+
+    @Test
+    void generatesTrustStoreFromCertificateFile() throws Exception {
+        var generator = new KeytoolCertificateGenerator();
+        generator.generateSelfSignedCertificateEntry("test@kroxylicious.io", "localhost", "Dev", "Kroxylicious.io", null, null, "US");
+        generator.generateTrustStore(generator.getCertFilePath(), "client");
+        // regenerating replaces the existing entry
+        generator.generateTrustStore(generator.getCertFilePath(), "client");
+
+        var keyStore = KeyStore.getInstance(new File(generator.getKeyStoreLocation()), generator.getPassword().toCharArray());
+        var trustStore = KeyStore.getInstance(new File(generator.getTrustStoreLocation()), generator.getPassword().toCharArray());
+        assertThat(trustStore.size()).isEqualTo(1);
+        assertThat(trustStore.isCertificateEntry("client")).isTrue();
+        assertThat(trustStore.getCertificate("client")).isEqualTo(keyStore.getCertificate("localhost"));
+    }
+
+    @Test
+    void keyStoreIsReadableAsJks() throws Exception {
+        var generator = new KeytoolCertificateGenerator();
+        generator.generateSelfSignedCertificateEntry("test@kroxylicious.io", "localhost", "Dev", "Kroxylicious.io", null, null, "US");
+
+        // Kafka's default ssl.keystore.type is JKS
+        var keyStore = KeyStore.getInstance("JKS");
+        try (var in = Files.newInputStream(Path.of(generator.getKeyStoreLocation()))) {
+            keyStore.load(in, generator.getPassword().toCharArray());
+        }
+        assertThat(keyStore.isKeyEntry("localhost")).isTrue();
+    }
+}
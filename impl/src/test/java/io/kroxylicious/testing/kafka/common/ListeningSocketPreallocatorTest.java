@@ -5,6 +5,9 @@
  */
 package io.kroxylicious.testing.kafka.common;
 
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -20,4 +23,19 @@ class ListeningSocketPreallocatorTest {
         preallocator.close();
         assertThat(sock.get().isClosed()).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    void releasedSocketCanBeReboundImmediately() throws Exception {
+        try (var preallocator = new ListeningSocketPreallocator()) {
+            var sock = preallocator.preAllocateListeningSockets(1).findFirst().orElseThrow();
+            assertThat(sock.getReuseAddress()).isTrue();
+            var port = sock.getLocalPort();
+            sock.close();
+            try (var rebound = new ServerSocket()) {
+                rebound.setReuseAddress(true);
+                rebound.bind(new InetSocketAddress(port));
+                assertThat(rebound.getLocalPort()).isEqualTo(port);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.common;
+
+import java.lang.annotation.Annotation;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.kroxylicious.testing.kafka.api.KafkaCluster;
+import io.kroxylicious.testing.kafka.invm.InVMKafkaCluster;
+import io.kroxylicious.testing.kafka.invm.InVMProvisioningStrategy;
+import io.kroxylicious.testing.kafka.testcontainers.TestcontainersProvisioningStrategy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProvisioningStatisticsTest {
+
+    private static final List<Annotation> CONSTRAINTS = List.of(ConstraintUtils.brokerCluster(3), ConstraintUtils.kraftCluster(1));
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void noEstimateUntilRecorded() {
+        var statistics = new ProvisioningStatistics(tempDir.resolve("stats.properties"));
+        assertThat(statistics.estimate(InVMProvisioningStrategy.class, CONSTRAINTS, KafkaCluster.class)).isEmpty();
+    }
+
+    @Test
+    void estimateIsMovingAverageOfRecordedTimes() {
+        var statistics = new ProvisioningStatistics(tempDir.resolve("stats.properties"));
+        statistics.record(InVMProvisioningStrategy.class, CONSTRAINTS, KafkaCluster.class, Duration.ofMillis(1000));
+        assertThat(statistics.estimate(InVMProvisioningStrategy.class, CONSTRAINTS, KafkaCluster.class)).contains(Duration.ofMillis(1000));
+
+        statistics.record(InVMProvisioningStrategy.class, CONSTRAINTS, KafkaCluster.class, Duration.ofMillis(2000));
+        assertThat(statistics.estimate(InVMProvisioningStrategy.class, CONSTRAINTS, KafkaCluster.class)).contains(Duration.ofMillis(1300));
+    }
+
+    @Test
+    void estimatesAreKeptBetweenInstances() {
+        var file = tempDir.resolve("stats.properties");
+        new ProvisioningStatistics(file).record(TestcontainersProvisioningStrategy.class, CONSTRAINTS, KafkaCluster.class, Duration.ofSeconds(7));
+        new ProvisioningStatistics(file).record(InVMProvisioningStrategy.class, CONSTRAINTS, KafkaCluster.class, Duration.ofSeconds(2));
+
+        var statistics = new ProvisioningStatistics(file);
+        assertThat(statistics.estimate(TestcontainersProvisioningStrategy.class, CONSTRAINTS, KafkaCluster.class)).contains(Duration.ofSeconds(7));
+        assertThat(statistics.estimate(InVMProvisioningStrategy.class, CONSTRAINTS, KafkaCluster.class)).contains(Duration.ofSeconds(2));
+        assertThat(tempDir).isDirectoryNotContaining(path -> path.getFileName().toString().endsWith(".tmp"));
+    }
+
+    @Test
+    void estimateIsIndependentOfConstraintOrder() {
+        var statistics = new ProvisioningStatistics(tempDir.resolve("stats.properties"));
+        statistics.record(InVMProvisioningStrategy.class, CONSTRAINTS, KafkaCluster.class, Duration.ofMillis(1500));
+        var reordered = List.of(CONSTRAINTS.get(1), CONSTRAINTS.get(0));
+        assertThat(statistics.estimate(InVMProvisioningStrategy.class, reordered, KafkaCluster.class)).contains(Duration.ofMillis(1500));
+        assertThat(statistics.estimate(InVMProvisioningStrategy.class, List.of(ConstraintUtils.brokerCluster(1)), KafkaCluster.class)).isEmpty();
+    }
+
+    @Test
+    void estimateIsSpecificToDeclarationType() {
+        var statistics = new ProvisioningStatistics(tempDir.resolve("stats.properties"));
+        statistics.record(InVMProvisioningStrategy.class, CONSTRAINTS, InVMKafkaCluster.class, Duration.ofMillis(1500));
+        assertThat(statistics.estimate(InVMProvisioningStrategy.class, CONSTRAINTS, InVMKafkaCluster.class)).contains(Duration.ofMillis(1500));
+        assertThat(statistics.estimate(InVMProvisioningStrategy.class, CONSTRAINTS, KafkaCluster.class)).isEmpty();
+    }
+
+    @Test
+    void malformedFileIsIgnored() throws Exception {
+        var file = tempDir.resolve("stats.properties");
+        Files.writeString(file, ProvisioningStatistics.key(InVMProvisioningStrategy.class, CONSTRAINTS, KafkaCluster.class) + "=not-a-number\n");
+        var statistics = new ProvisioningStatistics(file);
+        assertThat(statistics.estimate(InVMProvisioningStrategy.class, CONSTRAINTS, KafkaCluster.class)).isEmpty();
+    }
+}
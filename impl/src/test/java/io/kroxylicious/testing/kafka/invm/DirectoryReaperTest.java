@@ -0,0 +1,40 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.invm;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DirectoryReaperTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void directoryIsMovedAsideAndDeleted() throws Exception {
+        var directory = temp.resolve("cluster");
+        Files.createDirectories(directory.resolve("broker-0/topic-0"));
+        Files.writeString(directory.resolve("broker-0/topic-0/00000000000000000000.log"), "log");
+
+        var deleted = DirectoryReaper.reap(directory);
+        assertThat(directory).doesNotExist();
+
+        deleted.get(10, TimeUnit.SECONDS);
+        assertThat(temp).isEmptyDirectory();
+    }
+
+    @Test
+    void missingDirectoryIsIgnored() throws Exception {
+        DirectoryReaper.reap(temp.resolve("missing")).get(10, TimeUnit.SECONDS);
+        assertThat(temp).isEmptyDirectory();
+    }
+}
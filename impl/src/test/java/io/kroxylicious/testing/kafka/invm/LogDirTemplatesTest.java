@@ -0,0 +1,65 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.invm;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.kroxylicious.testing.kafka.common.KafkaClusterConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogDirTemplatesTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void fingerprintIgnoresClusterId() {
+        var first = KafkaClusterConfig.builder().kraftMode(true).build();
+        var second = KafkaClusterConfig.builder().kraftMode(true).build();
+        var different = KafkaClusterConfig.builder().kraftMode(true).brokersNum(2).build();
+
+        assertThat(LogDirTemplates.fingerprint(second)).isEqualTo(LogDirTemplates.fingerprint(first));
+        assertThat(LogDirTemplates.fingerprint(different)).isNotEqualTo(LogDirTemplates.fingerprint(first));
+    }
+
+    @Test
+    void capturedTemplateIsRestored() throws Exception {
+        var templates = temp.resolve("templates");
+        var source = temp.resolve("source");
+        Files.createDirectories(source.resolve("broker-0/__consumer_offsets-0"));
+        Files.createDirectories(source.resolve("broker-0/deleted-0.abc-delete"));
+        Files.writeString(source.resolve("broker-0/__consumer_offsets-0/00000000000000000000.log"), "log");
+        Files.writeString(source.resolve("broker-0/deleted-0.abc-delete/00000000000000000000.log"), "log");
+
+        assertThat(LogDirTemplates.restore(templates, "fingerprint", temp.resolve("empty"))).isFalse();
+        LogDirTemplates.capture(templates, "fingerprint", source);
+        assertThat(LogDirTemplates.exists(templates, "fingerprint")).isTrue();
+
+        var target = temp.resolve("target");
+        assertThat(LogDirTemplates.restore(templates, "fingerprint", target)).isTrue();
+        assertThat(target.resolve("broker-0/__consumer_offsets-0/00000000000000000000.log")).hasContent("log");
+        assertThat(target.resolve("broker-0/deleted-0.abc-delete")).doesNotExist();
+    }
+
+    @Test
+    void adoptsClusterId() throws Exception {
+        Files.writeString(temp.resolve("meta.properties"), "cluster.id=template\nnode.id=0\nversion=1\n");
+
+        LogDirTemplates.adoptClusterId(temp, "cluster");
+
+        var metaProperties = new Properties();
+        try (var in = Files.newInputStream(temp.resolve("meta.properties"))) {
+            metaProperties.load(in);
+        }
+        assertThat(metaProperties).containsEntry("cluster.id", "cluster").containsEntry("node.id", "0");
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.testcontainers;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.testcontainers.utility.DockerImageName;
+
+import io.kroxylicious.testing.kafka.common.KafkaClusterConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContainerReuseTest {
+
+    private static final DockerImageName KAFKA_IMAGE = DockerImageName.parse("quay.io/ogunalp/kafka-native:latest");
+    private static final DockerImageName ZOOKEEPER_IMAGE = DockerImageName.parse("quay.io/ogunalp/zookeeper-native:latest");
+
+    @Test
+    void fingerprintIsStableForPlaceholderPorts() {
+        var first = KafkaClusterConfig.builder().kraftMode(true).brokersNum(2).build();
+        var second = KafkaClusterConfig.builder().kraftMode(true).brokersNum(2).build();
+
+        assertThat(fingerprint(KAFKA_IMAGE, second)).isEqualTo(fingerprint(KAFKA_IMAGE, first));
+    }
+
+    @Test
+    void fingerprintDistinguishesImagesAndProperties() {
+        var config = KafkaClusterConfig.builder().kraftMode(true).build();
+        var withProperty = KafkaClusterConfig.builder().kraftMode(true).brokerConfig("compression.type", "zstd").build();
+        var otherImage = DockerImageName.parse("quay.io/ogunalp/kafka-native:latest-kafka-3.4.0");
+
+        assertThat(fingerprint(otherImage, config)).isNotEqualTo(fingerprint(KAFKA_IMAGE, config));
+        assertThat(fingerprint(KAFKA_IMAGE, withProperty)).isNotEqualTo(fingerprint(KAFKA_IMAGE, config));
+    }
+
+    @Test
+    void instanceIsClaimedExclusively() {
+        var instance = UUID.randomUUID().toString();
+        try {
+            assertThat(ContainerReuse.claim(instance)).isTrue();
+            assertThat(ContainerReuse.claim(instance)).isFalse();
+        }
+        finally {
+            ContainerReuse.release(instance);
+        }
+        assertThat(ContainerReuse.claim(instance)).isTrue();
+        ContainerReuse.release(instance);
+    }
+
+    private static String fingerprint(DockerImageName kafkaImage, KafkaClusterConfig config) {
+        var placeholders = TestcontainersKafkaCluster.buildEndpoints(config, nodeId -> TestcontainersKafkaCluster.CLIENT_PORT,
+                nodeId -> TestcontainersKafkaCluster.ANON_PORT);
+        return ContainerReuse.fingerprint(kafkaImage, ZOOKEEPER_IMAGE, config, placeholders);
+    }
+}
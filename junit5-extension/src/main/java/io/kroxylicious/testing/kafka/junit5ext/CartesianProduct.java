@@ -0,0 +1,104 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.junit5ext;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The cartesian product of some domains, whose tuples are computed as they are iterated, rather than up front,
+ * so that only one tuple is held in memory at a time.
+ * Tuples are produced in lexicographic order of their indices in the domains, so the first domain varies slowest.
+ *
+ * @param <T> the type of the domains' elements
+ */
+final class CartesianProduct<T> implements Iterable<List<T>> {
+
+    private final List<List<T>> domains;
+
+    /**
+     * Instantiates a new cartesian product.
+     *
+     * @param domains the domains, which must not be modified while the product is being iterated
+     */
+    CartesianProduct(List<List<T>> domains) {
+        if (domains.isEmpty()) {
+            throw new IllegalArgumentException("The cartesian product of no domains is not supported");
+        }
+        this.domains = domains;
+    }
+
+    /**
+     * Gets the number of tuples in the product.
+     *
+     * @return the size, saturating at {@link Long#MAX_VALUE}
+     */
+    long size() {
+        long size = 1;
+        for (List<T> domain : domains) {
+            if (domain.isEmpty()) {
+                return 0;
+            }
+            size = size > Long.MAX_VALUE / domain.size() ? Long.MAX_VALUE : size * domain.size();
+        }
+        return size;
+    }
+
+    /**
+     * Gets a sequential stream of the tuples.
+     *
+     * @return the stream
+     */
+    Stream<List<T>> stream() {
+        long size = size();
+        int characteristics = Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        var spliterator = size < Long.MAX_VALUE ? Spliterators.spliterator(iterator(), size, characteristics)
+                : Spliterators.spliteratorUnknownSize(iterator(), characteristics);
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    @Override
+    public Iterator<List<T>> iterator() {
+        return new Iterator<>() {
+            // The index in each domain of the next tuple's elements, or null once the product is exhausted
+            private int[] indices = size() == 0 ? null : new int[domains.size()];
+
+            @Override
+            public boolean hasNext() {
+                return indices != null;
+            }
+
+            @Override
+            public List<T> next() {
+                if (indices == null) {
+                    throw new NoSuchElementException();
+                }
+                List<T> tuple = new ArrayList<>(indices.length);
+                for (int i = 0; i < indices.length; i++) {
+                    tuple.add(domains.get(i).get(indices[i]));
+                }
+                advance();
+                return List.copyOf(tuple);
+            }
+
+            private void advance() {
+                for (int i = indices.length - 1; i >= 0; i--) {
+                    if (++indices[i] < domains.get(i).size()) {
+                        return;
+                    }
+                    indices[i] = 0;
+                }
+                indices = null;
+            }
+        };
+    }
+}
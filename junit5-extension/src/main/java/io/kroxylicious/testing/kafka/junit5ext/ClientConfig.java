@@ -0,0 +1,57 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.junit5ext;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@code @ClientConfig} can be used to annotate a field in a test class or a
+ * parameter in a test method of type {@link org.apache.kafka.clients.admin.Admin},
+ * {@link org.apache.kafka.clients.producer.Producer} or {@link org.apache.kafka.clients.consumer.Consumer}
+ * to give the client the given configuration, in addition to the configuration for connecting to the cluster.
+ *
+ * <pre>{@code
+ * @Test
+ * public void myTest(@ClientConfig(name = "linger.ms", value = "50")
+ *                    @ClientConfig(name = "compression.type", value = "zstd")
+ *                    Producer<String, String> producer)
+ * }</pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.PARAMETER })
+@Repeatable(ClientConfig.List.class)
+public @interface ClientConfig {
+    /**
+     * The name of the client configuration parameter, for example one of the
+     * <a href="https://kafka.apache.org/documentation.html#producerconfigs">producer configuration parameters</a>.
+     * @return the name
+     */
+    String name();
+
+    /**
+     * The value of the client configuration parameter.
+     * @return the value
+     */
+    String value();
+
+    /**
+     * The interface List.
+     */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ ElementType.FIELD, ElementType.PARAMETER })
+    @interface List {
+        /**
+         * List of client configs.
+         *
+         * @return the value of the client config list
+         */
+        ClientConfig[] value();
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.junit5ext;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import io.kroxylicious.testing.kafka.api.KafkaCluster;
+import io.kroxylicious.testing.kafka.common.BrokerConfig;
+import io.kroxylicious.testing.kafka.common.ConstraintUtils;
+
+/**
+ * Identifies the kind of cluster requested by a {@code KafkaCluster}-typed declaration:
+ * its declaration type together with its normalized constraints.
+ * Two declarations with equal keys can be satisfied by the same cluster.
+ *
+ * <p>The constraints are held in a canonical string form so that equivalent annotations compare equal
+ * regardless of how they were obtained (reflectively from a declaration, or via
+ * {@link ConstraintUtils}) and regardless of the order in which they were declared.
+ * {@link BrokerConfig}s are the exception: when the same config is given more than once the last value
+ * takes effect, so they are reduced to the broker config which takes effect before being compared.</p>
+ *
+ * @param declarationType the declaration type
+ * @param constraints the canonical forms of the constraints, sorted
+ */
+record ClusterKey(Class<? extends KafkaCluster> declarationType, List<String> constraints) {
+
+    /**
+     * Creates the key for a declaration.
+     *
+     * @param declarationType the declaration type
+     * @param constraints the {@link io.kroxylicious.testing.kafka.api.KafkaClusterConstraint}-annotated constraints
+     * @return the key
+     */
+    static ClusterKey of(Class<? extends KafkaCluster> declarationType, List<Annotation> constraints) {
+        List<String> canonical = new ArrayList<>();
+        // In declaration order, as KafkaClusterConfig.fromConstraints applies them
+        Map<String, String> brokerConfigs = new LinkedHashMap<>();
+        for (Annotation constraint : constraints) {
+            if (constraint instanceof BrokerConfig.List) {
+                for (var config : ((BrokerConfig.List) constraint).value()) {
+                    brokerConfigs.put(config.name(), config.value());
+                }
+            }
+            else if (constraint instanceof BrokerConfig) {
+                brokerConfigs.put(((BrokerConfig) constraint).name(), ((BrokerConfig) constraint).value());
+            }
+            else {
+                canonical.add(ConstraintUtils.canonicalForm(constraint));
+            }
+        }
+        brokerConfigs.forEach((name, value) -> canonical.add(ConstraintUtils.canonicalForm(ConstraintUtils.brokerConfig(name, value))));
+        return new ClusterKey(declarationType, canonical.stream()
+                .sorted()
+                .collect(Collectors.toUnmodifiableList()));
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.junit5ext;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import io.kroxylicious.testing.kafka.api.KafkaCluster;
+import io.kroxylicious.testing.kafka.api.ResettableKafkaCluster;
+
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.WARNING;
+
+/**
+ * A pool of started {@link KafkaCluster}s.
+ * When the scope which leased a cluster ends the cluster is {@linkplain #release(ClusterKey, KafkaCluster) released}
+ * back to the pool, rather than being closed, so that it can be leased by the next scope which
+ * declares a cluster with the same {@link ClusterKey}.
+ * A cluster is only ever leased to one scope at a time.
+ * Only {@link ResettableKafkaCluster}s are pooled: they are {@linkplain ResettableKafkaCluster#reset() reset}
+ * on release so the next scope does not observe state left behind by the previous one.
+ * Other clusters are closed on release.
+ * Idle clusters are closed when the pool itself is closed.
+ * A pool {@linkplain #forGroupedLeases() for grouped leases} also closes the idle clusters for other keys whenever a
+ * cluster is leased.
+ */
+class ClusterPool implements ExtensionContext.Store.CloseableResource {
+
+    private static final System.Logger LOGGER = System.getLogger(ClusterPool.class.getName());
+
+    private final Map<ClusterKey, Deque<KafkaCluster>> idle = new HashMap<>();
+    private final Function<ClusterKey, Optional<KafkaCluster>> prewarmed;
+    private final boolean groupedLeases;
+    private boolean closed = false;
+
+    /**
+     * Instantiates a new pool without any pre-warmed clusters.
+     */
+    ClusterPool() {
+        this(key -> Optional.empty());
+    }
+
+    /**
+     * Instantiates a new pool.
+     *
+     * @param prewarmed claims an already started cluster for a key, if one is available
+     */
+    ClusterPool(Function<ClusterKey, Optional<KafkaCluster>> prewarmed) {
+        this(prewarmed, false);
+    }
+
+    private ClusterPool(Function<ClusterKey, Optional<KafkaCluster>> prewarmed, boolean groupedLeases) {
+        this.prewarmed = prewarmed;
+        this.groupedLeases = groupedLeases;
+    }
+
+    /**
+     * Instantiates a new pool for leases which are made in groups of the same key, such as the invocations of a test
+     * template ordered by their constraints, so that once a cluster has been leased for one key the idle clusters
+     * for other keys won't be leased again, and are closed rather than being kept until the pool is closed.
+     *
+     * @return the pool
+     */
+    static ClusterPool forGroupedLeases() {
+        return new ClusterPool(key -> Optional.empty(), true);
+    }
+
+    /**
+     * Leases a cluster matching the given key, using an idle one if there is one,
+     * then a pre-warmed one if there is one, and otherwise using the given {@code factory} to provision a new one.
+     *
+     * @param key the key
+     * @param factory supplies a new, started, cluster
+     * @return the leased cluster
+     */
+    KafkaCluster lease(ClusterKey key, Supplier<KafkaCluster> factory) {
+        List<KafkaCluster> superseded = new ArrayList<>();
+        try {
+            synchronized (this) {
+                if (closed) {
+                    throw new IllegalStateException("Cluster pool is closed");
+                }
+                if (groupedLeases) {
+                    idle.entrySet().removeIf(entry -> {
+                        if (entry.getKey().equals(key)) {
+                            return false;
+                        }
+                        superseded.addAll(entry.getValue());
+                        return true;
+                    });
+                }
+                Deque<KafkaCluster> clusters = idle.get(key);
+                if (clusters != null && !clusters.isEmpty()) {
+                    KafkaCluster cluster = clusters.pop();
+                    LOGGER.log(DEBUG, "Reusing pooled cluster {0} for {1}", cluster, key);
+                    return cluster;
+                }
+            }
+        }
+        finally {
+            superseded.forEach(ClusterPool::closeSuperseded);
+        }
+        Optional<KafkaCluster> cluster = prewarmed.apply(key);
+        if (cluster.isPresent()) {
+            return cluster.get();
+        }
+        LOGGER.log(DEBUG, "No pooled cluster available for {0}, provisioning a new one", key);
+        return factory.get();
+    }
+
+    /**
+     * Returns a previously leased cluster to the pool, after resetting its state.
+     * If the pool has been closed, the cluster is not resettable, or resetting it fails, the cluster is closed instead.
+     *
+     * @param key the key the cluster was leased with
+     * @param cluster the cluster
+     * @throws Exception if the cluster had to be closed, and closing it failed
+     */
+    void release(ClusterKey key, KafkaCluster cluster) throws Exception {
+        if (isClosed() || !resetForReuse(cluster)) {
+            cluster.close();
+            return;
+        }
+        synchronized (this) {
+            if (!closed) {
+                LOGGER.log(DEBUG, "Returning cluster {0} to the pool for {1}", cluster, key);
+                idle.computeIfAbsent(key, k -> new ArrayDeque<>()).push(cluster);
+                return;
+            }
+        }
+        cluster.close();
+    }
+
+    private static void closeSuperseded(KafkaCluster cluster) {
+        LOGGER.log(DEBUG, "Closing pooled cluster {0} which will not be leased again", cluster);
+        try {
+            cluster.close();
+        }
+        catch (Exception e) {
+            LOGGER.log(WARNING, "Failed to close pooled cluster {0}", cluster, e);
+        }
+    }
+
+    private synchronized boolean isClosed() {
+        return closed;
+    }
+
+    private static boolean resetForReuse(KafkaCluster cluster) {
+        if (!(cluster instanceof ResettableKafkaCluster)) {
+            LOGGER.log(DEBUG, "Cluster {0} cannot be reset, so will not be pooled", cluster);
+            return false;
+        }
+        try {
+            ((ResettableKafkaCluster) cluster).reset();
+            return true;
+        }
+        catch (RuntimeException e) {
+            LOGGER.log(WARNING, "Failed to reset cluster {0}, so will not be pooled", cluster, e);
+            return false;
+        }
+    }
+
+    /**
+     * Gets the number of idle clusters in the pool.
+     *
+     * @return the number of idle clusters
+     */
+    synchronized int idleCount() {
+        return idle.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    @Override
+    public void close() throws Throwable {
+        List<KafkaCluster> toClose = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            idle.values().forEach(toClose::addAll);
+            idle.clear();
+        }
+        Throwable failure = null;
+        for (KafkaCluster cluster : toClose) {
+            try {
+                cluster.close();
+            }
+            catch (Throwable t) {
+                LOGGER.log(WARNING, "Failed to close pooled cluster {0}", cluster, t);
+                if (failure == null) {
+                    failure = t;
+                }
+                else {
+                    failure.addSuppressed(t);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
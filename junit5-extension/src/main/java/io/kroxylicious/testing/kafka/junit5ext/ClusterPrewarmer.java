@@ -0,0 +1,355 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.junit5ext;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.TestTemplate;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.junit.platform.commons.support.HierarchyTraversalMode;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+import io.kroxylicious.testing.kafka.api.KafkaCluster;
+import io.kroxylicious.testing.kafka.api.KafkaClusterConstraint;
+
+import static java.lang.System.Logger.Level.DEBUG;
+import static java.lang.System.Logger.Level.WARNING;
+import static org.junit.platform.commons.support.ReflectionSupport.findFields;
+
+/**
+ * A {@link TestExecutionListener} which, before any tests are executed, scans the test plan for
+ * {@link KafkaCluster}-typed fields and parameters of tests using the {@link KafkaClusterExtension}
+ * and provisions clusters for the distinct {@link ClusterKey}s in the background, a little ahead of the tests which
+ * need them.
+ * Whether or not pre-warming is enabled, the provisioning strategy of each declared cluster is asked to
+ * {@linkplain io.kroxylicious.testing.kafka.api.KafkaClusterProvisioningStrategy#prepare(List, Class) prepare},
+ * so that, for example, container images are pulled while the first tests execute.
+ * When a test declaring such a cluster is executed the {@link ClusterPool} claims the pre-warmed cluster,
+ * rather than provisioning one on the test thread.
+ *
+ * <p>Pre-warming is only performed when both the {@value KafkaClusterExtension#CLUSTER_POOL_ENABLED_PARAMETER}
+ * and {@value #PREWARM_ENABLED_PARAMETER} configuration parameters are {@code true}.
+ * Clusters are provisioned in the order the test plan executes the tests declaring them, at most
+ * {@value #PREWARM_PARALLELISM_PARAMETER} at a time. No more than {@value #PREWARM_LOOKAHEAD_PARAMETER} clusters are
+ * provisioned or waiting to be claimed at any time, and each claim starts the provisioning of the next cluster in the
+ * plan, so that the pre-warmed clusters don't tie up resources long before they're needed.
+ * Clusters which were not claimed by the time the test plan has finished executing are closed.
+ * Test templates are not pre-warmed, because their constraints are only known once the template is invoked.</p>
+ */
+public class ClusterPrewarmer implements TestExecutionListener {
+
+    private static final System.Logger LOGGER = System.getLogger(ClusterPrewarmer.class.getName());
+
+    /**
+     * The configuration parameter which enables pre-warming.
+     */
+    public static final String PREWARM_ENABLED_PARAMETER = "kroxylicious.testing.cluster.prewarm.enabled";
+
+    /**
+     * The configuration parameter for the maximum number of clusters provisioned concurrently by the pre-warmer.
+     */
+    public static final String PREWARM_PARALLELISM_PARAMETER = "kroxylicious.testing.cluster.prewarm.parallelism";
+
+    /**
+     * The configuration parameter for the maximum number of pre-warmed clusters which are being provisioned or
+     * are waiting to be claimed.
+     */
+    public static final String PREWARM_LOOKAHEAD_PARAMETER = "kroxylicious.testing.cluster.prewarm.lookahead";
+
+    private static final int DEFAULT_PARALLELISM = 2;
+
+    private static final int DEFAULT_LOOKAHEAD = 2;
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 120;
+
+    // The window of the test plan being executed, or null when not pre-warming. Guarded by ClusterPrewarmer.class
+    private static Window window;
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * Claims a pre-warmed cluster for the given key, waiting for its provisioning to complete if necessary.
+     * If provisioning has not yet started it is performed on the calling thread.
+     * A claimed cluster is no longer managed by the pre-warmer.
+     *
+     * @param key the key
+     * @return the started cluster, or empty if there was no pre-warmed cluster for the key, or provisioning it failed
+     */
+    static Optional<KafkaCluster> claim(ClusterKey key) {
+        Window current;
+        synchronized (ClusterPrewarmer.class) {
+            current = window;
+        }
+        return current == null ? Optional.empty() : current.claim(key);
+    }
+
+    @Override
+    public void testPlanExecutionStarted(TestPlan testPlan) {
+        Map<ClusterKey, List<Annotation>> declared = new LinkedHashMap<>();
+        testPlan.getRoots().forEach(root -> inExecutionOrder(testPlan, root,
+                identifier -> declaredClusters(identifier).forEach(declared::putIfAbsent)));
+        if (declared.isEmpty()) {
+            return;
+        }
+        // Whether or not clusters are pre-warmed, their strategies can start fetching what they'll need
+        declared.forEach(ClusterPrewarmer::prepare);
+        var parameters = testPlan.getConfigurationParameters();
+        if (!parameters.getBoolean(KafkaClusterExtension.CLUSTER_POOL_ENABLED_PARAMETER).orElse(false)
+                || !parameters.getBoolean(PREWARM_ENABLED_PARAMETER).orElse(false)) {
+            return;
+        }
+        int parallelism = parameters.get(PREWARM_PARALLELISM_PARAMETER, Integer::parseInt).orElse(DEFAULT_PARALLELISM);
+        int lookahead = parameters.get(PREWARM_LOOKAHEAD_PARAMETER, Integer::parseInt).orElse(DEFAULT_LOOKAHEAD);
+        var threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "kroxylicious-cluster-prewarm-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        LOGGER.log(DEBUG, "Pre-warming up to {0} of {1} cluster(s) ahead of the tests using {2} thread(s)", lookahead, declared.size(), parallelism);
+        var started = new Window(declared, lookahead, executor, ClusterPrewarmer::provision);
+        synchronized (ClusterPrewarmer.class) {
+            window = started;
+        }
+        started.fill();
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        if (executor == null) {
+            return;
+        }
+        Window finished;
+        synchronized (ClusterPrewarmer.class) {
+            finished = window;
+            window = null;
+        }
+        List<FutureTask<KafkaCluster>> unclaimed = finished.close();
+        // Don't start provisioning clusters nobody will claim, but let those already starting finish so they can be closed
+        unclaimed.forEach(executor::remove);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.log(WARNING, "Timed out waiting for pre-warming clusters to finish starting");
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (FutureTask<KafkaCluster> future : unclaimed) {
+            if (future.isDone()) {
+                closeQuietly(future);
+            }
+        }
+        executor = null;
+    }
+
+    private static void inExecutionOrder(TestPlan testPlan, TestIdentifier identifier, Consumer<TestIdentifier> action) {
+        action.accept(identifier);
+        testPlan.getChildren(identifier).forEach(child -> inExecutionOrder(testPlan, child, action));
+    }
+
+    /**
+     * The clusters being pre-warmed ahead of the tests, in test plan order.
+     * At most {@code lookahead} clusters are being provisioned or waiting to be claimed at any time,
+     * and each claim makes room for the next cluster in the plan.
+     */
+    static final class Window {
+        private final Deque<Map.Entry<ClusterKey, List<Annotation>>> pending;
+        private final Map<ClusterKey, FutureTask<KafkaCluster>> prewarmed = new HashMap<>();
+        private final int lookahead;
+        private final Executor executor;
+        private final BiFunction<ClusterKey, List<Annotation>, KafkaCluster> provisioner;
+
+        /**
+         * Creates a window, which provisions nothing until it is {@link #fill() filled}.
+         *
+         * @param declared the constraints of each declared cluster, by key, in test plan order
+         * @param lookahead the maximum number of clusters being provisioned or waiting to be claimed
+         * @param executor the executor on which to provision the clusters
+         * @param provisioner provisions and starts a cluster
+         */
+        Window(Map<ClusterKey, List<Annotation>> declared, int lookahead, Executor executor,
+               BiFunction<ClusterKey, List<Annotation>, KafkaCluster> provisioner) {
+            this.pending = new ArrayDeque<>(declared.entrySet());
+            this.lookahead = lookahead;
+            this.executor = executor;
+            this.provisioner = provisioner;
+        }
+
+        synchronized void fill() {
+            while (prewarmed.size() < lookahead && !pending.isEmpty()) {
+                var next = pending.poll();
+                var future = new FutureTask<>(() -> provisioner.apply(next.getKey(), next.getValue()));
+                prewarmed.put(next.getKey(), future);
+                executor.execute(future);
+            }
+        }
+
+        Optional<KafkaCluster> claim(ClusterKey key) {
+            FutureTask<KafkaCluster> future;
+            synchronized (this) {
+                future = prewarmed.remove(key);
+                // Once a cluster for the key has been claimed or provisioned on demand, the pool provides the rest
+                pending.removeIf(entry -> entry.getKey().equals(key));
+            }
+            fill();
+            if (future == null) {
+                return Optional.empty();
+            }
+            // If the pre-warmer has not got round to this cluster yet, provision it on the claiming thread
+            future.run();
+            try {
+                KafkaCluster cluster = future.get();
+                LOGGER.log(DEBUG, "Claimed pre-warmed cluster {0} for {1}", cluster, key);
+                return Optional.of(cluster);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            }
+            catch (ExecutionException e) {
+                LOGGER.log(WARNING, "Pre-warming a cluster for {0} failed, it will be provisioned on demand", key, e.getCause());
+                return Optional.empty();
+            }
+        }
+
+        /**
+         * Stops pre-warming clusters.
+         *
+         * @return the clusters which were not claimed
+         */
+        synchronized List<FutureTask<KafkaCluster>> close() {
+            pending.clear();
+            List<FutureTask<KafkaCluster>> unclaimed = new ArrayList<>(prewarmed.values());
+            prewarmed.clear();
+            return unclaimed;
+        }
+    }
+
+    private static void closeQuietly(FutureTask<KafkaCluster> future) {
+        try {
+            KafkaCluster cluster = future.get();
+            LOGGER.log(DEBUG, "Closing unclaimed pre-warmed cluster {0}", cluster);
+            cluster.close();
+        }
+        catch (ExecutionException e) {
+            // Provisioning failed, so there is nothing to close
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        catch (Exception e) {
+            LOGGER.log(WARNING, "Failed to close unclaimed pre-warmed cluster", e);
+        }
+    }
+
+    private static KafkaCluster provision(ClusterKey key, List<Annotation> constraints) {
+        LOGGER.log(DEBUG, "Pre-warming cluster for {0}", key);
+        var type = key.declarationType();
+        var strategy = KafkaClusterExtension.findBestProvisioningStrategy(constraints, type);
+        return KafkaClusterExtension.startCluster(KafkaClusterExtension.create(strategy, constraints, type));
+    }
+
+    private static void prepare(ClusterKey key, List<Annotation> constraints) {
+        var type = key.declarationType();
+        try {
+            KafkaClusterExtension.findBestProvisioningStrategy(constraints, type).prepare(constraints, type);
+        }
+        catch (RuntimeException e) {
+            // Provisioning will be attempted regardless, and any failure reported then
+            LOGGER.log(DEBUG, "Failed to prepare to provision a cluster for {0}", key, e);
+        }
+    }
+
+    private static Map<ClusterKey, List<Annotation>> declaredClusters(TestIdentifier identifier) {
+        Optional<TestSource> source = identifier.getSource();
+        if (source.isPresent() && source.get() instanceof ClassSource) {
+            return declaredClusters(((ClassSource) source.get()).getJavaClass());
+        }
+        else if (source.isPresent() && source.get() instanceof MethodSource) {
+            return declaredClusters(((MethodSource) source.get()).getJavaMethod());
+        }
+        return Map.of();
+    }
+
+    /**
+     * Finds the clusters declared by the {@link KafkaCluster}-typed fields of a test class.
+     *
+     * @param testClass the test class
+     * @return the constraints of each declared cluster, by key, in declaration order
+     */
+    static Map<ClusterKey, List<Annotation>> declaredClusters(Class<?> testClass) {
+        Map<ClusterKey, List<Annotation>> declared = new LinkedHashMap<>();
+        if (usesExtension(testClass)) {
+            findFields(testClass, field -> KafkaCluster.class.isAssignableFrom(field.getType()), HierarchyTraversalMode.TOP_DOWN)
+                    .forEach(field -> addDeclaration(declared, field, field.getType()));
+        }
+        return declared;
+    }
+
+    /**
+     * Finds the clusters declared by the {@link KafkaCluster}-typed parameters of a test method.
+     *
+     * @param testMethod the test method
+     * @return the constraints of each declared cluster, by key, in declaration order
+     */
+    static Map<ClusterKey, List<Annotation>> declaredClusters(Method testMethod) {
+        Map<ClusterKey, List<Annotation>> declared = new LinkedHashMap<>();
+        if (!testMethod.isAnnotationPresent(TestTemplate.class) && usesExtension(testMethod.getDeclaringClass())) {
+            for (Parameter parameter : testMethod.getParameters()) {
+                if (KafkaCluster.class.isAssignableFrom(parameter.getType())) {
+                    addDeclaration(declared, parameter, parameter.getType());
+                }
+            }
+        }
+        return declared;
+    }
+
+    private static void addDeclaration(Map<ClusterKey, List<Annotation>> declared, AnnotatedElement element, Class<?> type) {
+        List<Annotation> constraints = KafkaClusterExtension.getConstraintAnnotations(element, KafkaClusterConstraint.class);
+        declared.putIfAbsent(ClusterKey.of(type.asSubclass(KafkaCluster.class), constraints), constraints);
+    }
+
+    private static boolean usesExtension(Class<?> testClass) {
+        for (Class<?> clazz = testClass; clazz != null; clazz = clazz.getEnclosingClass()) {
+            boolean extended = AnnotationSupport.findRepeatableAnnotations(clazz, ExtendWith.class).stream()
+                    .flatMap(extendWith -> Arrays.stream(extendWith.value()))
+                    .anyMatch(KafkaClusterExtension.class::isAssignableFrom);
+            if (extended) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
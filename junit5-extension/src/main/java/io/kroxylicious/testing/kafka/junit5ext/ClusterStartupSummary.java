@@ -0,0 +1,103 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.junit5ext;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestPlan;
+
+import io.kroxylicious.testing.kafka.api.ClusterStartupReport;
+import io.kroxylicious.testing.kafka.api.KafkaCluster;
+
+import static java.lang.System.Logger.Level.DEBUG;
+
+/**
+ * A {@link TestExecutionListener} which aggregates the {@link ClusterStartupReport}s of the clusters started by the
+ * {@link KafkaClusterExtension} during a test plan's execution, and logs a summary, by type of cluster, at debug level once it has
+ * finished.
+ */
+public class ClusterStartupSummary implements TestExecutionListener {
+
+    private static final System.Logger LOGGER = System.getLogger(ClusterStartupSummary.class.getName());
+
+    // Guarded by ClusterStartupSummary.class
+    private static final Map<String, Aggregate> AGGREGATES = new LinkedHashMap<>();
+
+    /**
+     * Records the startup report of a cluster which has been started.
+     *
+     * @param cluster the cluster
+     */
+    static void record(KafkaCluster cluster) {
+        var report = cluster.getStartupReport();
+        if (report.getPhases().isEmpty()) {
+            return;
+        }
+        synchronized (ClusterStartupSummary.class) {
+            AGGREGATES.computeIfAbsent(cluster.getClass().getSimpleName(), type -> new Aggregate()).add(report);
+        }
+    }
+
+    /**
+     * Gets the summary of the clusters started since the summary was last logged.
+     *
+     * @return the summary, with a line for each type of cluster, or the empty string if no clusters were started
+     */
+    static synchronized String summary() {
+        return AGGREGATES.entrySet().stream()
+                .map(entry -> entry.getKey() + ": " + entry.getValue())
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    @Override
+    public void testPlanExecutionFinished(TestPlan testPlan) {
+        String summary;
+        synchronized (ClusterStartupSummary.class) {
+            summary = summary();
+            AGGREGATES.clear();
+        }
+        if (!summary.isEmpty()) {
+            LOGGER.log(DEBUG, "Cluster startup summary:{0}{1}", System.lineSeparator(), summary);
+        }
+    }
+
+    /**
+     * The startup times of the clusters of one type.
+     */
+    private static final class Aggregate {
+        private int clusters;
+        private Duration total = Duration.ZERO;
+        private Duration max = Duration.ZERO;
+        // Not every cluster of a type goes through every phase, so each phase is averaged over the clusters which did
+        private final Map<String, Duration> phases = new LinkedHashMap<>();
+        private final Map<String, Integer> phaseCounts = new HashMap<>();
+
+        void add(ClusterStartupReport report) {
+            clusters++;
+            total = total.plus(report.getTotal());
+            if (report.getTotal().compareTo(max) > 0) {
+                max = report.getTotal();
+            }
+            report.getPhases().forEach((phase, duration) -> {
+                phases.merge(phase, duration, Duration::plus);
+                phaseCounts.merge(phase, 1, Integer::sum);
+            });
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d cluster(s), mean %dms, max %dms; mean by phase: %s", clusters, total.dividedBy(clusters).toMillis(), max.toMillis(),
+                    phases.entrySet().stream()
+                            .map(entry -> String.format("%s %dms", entry.getKey(), entry.getValue().dividedBy(phaseCounts.get(entry.getKey())).toMillis()))
+                            .collect(Collectors.joining(", ")));
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.junit5ext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Computes covering arrays: sets of tuples drawn from some domains such that, for any {@code strength} of the domains,
+ * every combination of their elements occurs in at least one tuple.
+ * For example, when {@code strength} is 2 (pairwise coverage) every pair of elements from every pair of domains
+ * occurs together in some tuple, which usually takes far fewer tuples than the cartesian product.
+ * <p>
+ * The arrays are built deterministically using the IPOG (in-parameter-order-general) strategy: the cartesian
+ * product of the {@code strength} largest domains is extended one domain at a time, in decreasing order of size,
+ * first by choosing for each existing tuple the element covering the most uncovered combinations, then by adding
+ * tuples for any combinations still uncovered. The result is not guaranteed to be minimal, but is usually close.
+ * </p>
+ */
+final class CoveringArray {
+
+    // Marks an element of a tuple which has yet to be chosen
+    private static final int UNCHOSEN = -1;
+
+    private CoveringArray() {
+    }
+
+    /**
+     * Computes a covering array of the given strength.
+     * If the strength is at least the number of domains, the result is the cartesian product of the domains.
+     *
+     * @param domains the domains
+     * @param strength the number of domains whose combinations of elements are covered
+     * @param <T> the type of the domains' elements
+     * @return the tuples, in which the elements are in the same order as their domains
+     * @throws IllegalArgumentException if there are no domains, or the strength is less than 1
+     */
+    static <T> List<List<T>> of(List<List<T>> domains, int strength) {
+        if (strength < 1) {
+            throw new IllegalArgumentException("Covering strength must be at least 1, but was " + strength);
+        }
+        if (strength >= domains.size()) {
+            return new CartesianProduct<>(domains).stream().collect(Collectors.toList());
+        }
+        if (domains.stream().anyMatch(List::isEmpty)) {
+            return List.of();
+        }
+        // IPOG gives smaller arrays when the largest domains come first, so the columns are the domains in that order
+        int[] order = IntStream.range(0, domains.size()).boxed()
+                .sorted(Comparator.comparingInt((Integer domain) -> domains.get(domain).size()).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int[] sizes = Arrays.stream(order).map(domain -> domains.get(domain).size()).toArray();
+        List<int[]> rows = new ArrayList<>();
+        for (List<Integer> initial : new CartesianProduct<>(indices(sizes, strength))) {
+            int[] row = new int[sizes.length];
+            Arrays.fill(row, UNCHOSEN);
+            for (int i = 0; i < strength; i++) {
+                row[i] = initial.get(i);
+            }
+            rows.add(row);
+        }
+        for (int column = strength; column < sizes.length; column++) {
+            extend(rows, sizes, strength, column);
+        }
+        return rows.stream()
+                .map(row -> {
+                    List<T> tuple = new ArrayList<>(Collections.nCopies(row.length, null));
+                    for (int column = 0; column < row.length; column++) {
+                        // Any element will do where none was needed to cover a combination
+                        tuple.set(order[column], domains.get(order[column]).get(row[column] == UNCHOSEN ? 0 : row[column]));
+                    }
+                    return List.copyOf(tuple);
+                })
+                .collect(Collectors.toList());
+    }
+
+    // Extends the rows, which cover the combinations of the columns before the given column, to cover those including it
+    private static void extend(List<int[]> rows, int[] sizes, int strength, int column) {
+        List<int[]> otherColumns = combinations(column, strength - 1);
+        Set<List<Integer>> uncovered = new LinkedHashSet<>();
+        for (int[] others : otherColumns) {
+            int[] combinationSizes = new int[strength];
+            for (int i = 0; i < others.length; i++) {
+                combinationSizes[i] = sizes[others[i]];
+            }
+            combinationSizes[strength - 1] = sizes[column];
+            for (List<Integer> values : new CartesianProduct<>(indices(combinationSizes, strength))) {
+                uncovered.add(combination(others, column, values));
+            }
+        }
+
+        // Horizontal growth: choose the element for the column which covers the most uncovered combinations
+        for (int[] row : rows) {
+            int best = 0;
+            List<List<Integer>> bestCovered = List.of();
+            for (int value = 0; value < sizes[column]; value++) {
+                row[column] = value;
+                List<List<Integer>> covered = new ArrayList<>();
+                for (int[] others : otherColumns) {
+                    var combination = combination(others, row, column);
+                    if (combination != null && uncovered.contains(combination)) {
+                        covered.add(combination);
+                    }
+                }
+                if (covered.size() > bestCovered.size()) {
+                    best = value;
+                    bestCovered = covered;
+                }
+            }
+            row[column] = best;
+            bestCovered.forEach(uncovered::remove);
+        }
+
+        // Vertical growth: fit each combination still uncovered into a row with its elements unchosen, or a new row
+        for (Iterator<List<Integer>> iterator = uncovered.iterator(); iterator.hasNext();) {
+            List<Integer> combination = iterator.next();
+            int[] row = rows.stream()
+                    .filter(candidate -> accommodates(candidate, combination, strength))
+                    .findFirst()
+                    .orElseGet(() -> {
+                        int[] added = new int[sizes.length];
+                        Arrays.fill(added, UNCHOSEN);
+                        rows.add(added);
+                        return added;
+                    });
+            for (int i = 0; i < strength; i++) {
+                row[combination.get(i)] = combination.get(strength + i);
+            }
+            iterator.remove();
+        }
+    }
+
+    // Whether the row has the elements of the combination, or they are unchosen
+    private static boolean accommodates(int[] row, List<Integer> combination, int strength) {
+        for (int i = 0; i < strength; i++) {
+            int value = row[combination.get(i)];
+            if (value != UNCHOSEN && value != combination.get(strength + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // A combination is represented by its columns, in ascending order, followed by the indices of its elements
+    private static List<Integer> combination(int[] others, int column, List<Integer> values) {
+        List<Integer> combination = new ArrayList<>(2 * values.size());
+        Arrays.stream(others).forEach(combination::add);
+        combination.add(column);
+        combination.addAll(values);
+        return combination;
+    }
+
+    private static List<Integer> combination(int[] others, int[] row, int column) {
+        List<Integer> values = new ArrayList<>(others.length + 1);
+        for (int other : others) {
+            if (row[other] == UNCHOSEN) {
+                return null;
+            }
+            values.add(row[other]);
+        }
+        values.add(row[column]);
+        return combination(others, column, values);
+    }
+
+    // The indices of the elements of each of the first count domains
+    private static List<List<Integer>> indices(int[] sizes, int count) {
+        List<List<Integer>> indices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            List<Integer> domain = new ArrayList<>(sizes[i]);
+            for (int j = 0; j < sizes[i]; j++) {
+                domain.add(j);
+            }
+            indices.add(domain);
+        }
+        return indices;
+    }
+
+    // The combinations of count of the columns before the given column, each in ascending order
+    private static List<int[]> combinations(int column, int count) {
+        List<int[]> combinations = new ArrayList<>();
+        addCombinations(combinations, new int[count], 0, 0, column);
+        return combinations;
+    }
+
+    private static void addCombinations(List<int[]> combinations, int[] combination, int index, int start, int end) {
+        if (index == combination.length) {
+            combinations.add(combination.clone());
+            return;
+        }
+        for (int i = start; i < end; i++) {
+            combination[index] = i;
+            addCombinations(combinations, combination, index + 1, i + 1, end);
+        }
+    }
+}
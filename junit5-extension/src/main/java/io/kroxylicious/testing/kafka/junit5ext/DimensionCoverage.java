@@ -0,0 +1,44 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.junit5ext;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Reduces the tests generated from the {@link DimensionMethodSource @DimensionMethodSource}s of a
+ * {@code KafkaCluster}-typed parameter of a {@code TestTemplate} from every element of the Cartesian product
+ * to a covering array: a smaller set of tests in which, for every {@link #strength()} of the dimensions,
+ * every combination of their constraints is tested at least once.
+ *
+ * <pre>{@code
+ * @TestTemplate
+ * public void matrix(
+ *         @DimensionMethodSource("clusterSizes")
+ *         @DimensionMethodSource("versions")
+ *         @DimensionMethodSource("compression")
+ *         @DimensionCoverage(strength = 2)
+ *         KafkaCluster cluster) throws Exception {
+ *     // ... your test code
+ * }
+ * }</pre>
+ *
+ * <p>With the default strength of 2 (pairwise coverage) every pair of constraints from every pair of
+ * dimensions is tested, which usually needs a small fraction of the clusters of the Cartesian product.
+ * If the strength is at least the number of dimensions the whole Cartesian product is tested.</p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.PARAMETER, ElementType.FIELD })
+public @interface DimensionCoverage {
+
+    /**
+     * The number of dimensions whose every combination of constraints is to be tested.
+     * @return the strength, which must be at least 1
+     */
+    int strength() default 2;
+}
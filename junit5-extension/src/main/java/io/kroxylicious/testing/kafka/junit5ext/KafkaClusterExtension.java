@@ -13,17 +13,29 @@ import java.lang.reflect.Parameter;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.ServiceLoader;
 import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -119,6 +131,11 @@ import static org.junit.platform.commons.util.ReflectionUtils.makeAccessible;
  * <li>Your test methods can declare {@code Producer}, {@code Consumer} and {@code Admin}-typed parameters.
  * They will be configured to bootstrap against the {@code cluster}.</li>
  * </ol>
+ *
+ * <p>When the {@value #CLUSTER_POOL_ENABLED_PARAMETER} configuration parameter is {@code true}
+ * a cluster is not closed at the end of the scope that declared it, but returned to a pool
+ * from which it will be leased to the next scope declaring a cluster of the same type with the same constraints.
+ * Pooled clusters can also be provisioned ahead of the tests that need them by the {@link ClusterPrewarmer}.</p>
  */
 public class KafkaClusterExtension implements
         ParameterResolver, BeforeEachCallback,
@@ -130,11 +147,38 @@ public class KafkaClusterExtension implements
     private static final ExtensionContext.Namespace ADMIN_NAMESPACE = ExtensionContext.Namespace.create(KafkaClusterExtension.class, Admin.class);
     private static final ExtensionContext.Namespace PRODUCER_NAMESPACE = ExtensionContext.Namespace.create(KafkaClusterExtension.class, Producer.class);
     private static final ExtensionContext.Namespace CONSUMER_NAMESPACE = ExtensionContext.Namespace.create(KafkaClusterExtension.class, Consumer.class);
+    private static final ExtensionContext.Namespace POOL_NAMESPACE = ExtensionContext.Namespace.create(KafkaClusterExtension.class, ClusterPool.class);
+
+    // How each created cluster which has yet to be started was provisioned
+    private static final Map<KafkaCluster, Provisioning> UNSTARTED = Collections.synchronizedMap(new WeakHashMap<>());
+
+    // Provisions the clusters of a test class's fields concurrently
+    private static final ExecutorService PROVISIONING_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "kroxylicious-cluster-provision-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
     /**
      * The constant STARTING_PREFIX.
      */
     public static final String STARTING_PREFIX = "WY9Br5K1vAfov_8jjJ3KUA";
 
+    /**
+     * Configuration parameter which, when {@code true}, causes started clusters to be pooled and reused
+     * by later scopes which declare a cluster of the same type with the same constraints,
+     * rather than being closed at the end of the scope which declared them.
+     * Pooled clusters are closed when the test run finishes.
+     */
+    public static final String CLUSTER_POOL_ENABLED_PARAMETER = "kroxylicious.testing.cluster.pool.enabled";
+
+    // The key of the pool shared by the invocations of a test template, in the template's store
+    private static final String TEMPLATE_POOL_KEY = "template";
+
     /**
      * Instantiates a new Kafka cluster extension.
      */
@@ -152,29 +196,6 @@ public class KafkaClusterExtension implements
         return true;
     }
 
-    private static List<? extends List<? extends Object>> cartesianProduct(List<List<?>> domains) {
-        if (domains.isEmpty()) {
-            throw new IllegalArgumentException();
-        }
-        return _cartesianProduct(0, domains);
-    }
-
-    private static List<? extends List<? extends Object>> _cartesianProduct(int index, List<List<?>> domains) {
-        List<List<Object>> ret = new ArrayList<>();
-        if (index == domains.size()) {
-            ret.add(new ArrayList<>(domains.size()));
-        }
-        else {
-            for (Object obj : domains.get(index)) {
-                for (List tuple : _cartesianProduct(index + 1, domains)) {
-                    tuple.add(0, obj);
-                    ret.add(tuple);
-                }
-            }
-        }
-        return ret;
-    }
-
     @Override
     public Stream<TestTemplateInvocationContext> provideTestTemplateInvocationContexts(ExtensionContext context) {
         Method testTemplateMethod = context.getRequiredTestMethod();
@@ -183,22 +204,34 @@ public class KafkaClusterExtension implements
         Parameter parameter = Arrays.stream(parameters).filter(p -> KafkaCluster.class.isAssignableFrom(p.getType())).findFirst().get();
         DimensionMethodSource[] freeConstraintsSource = parameter.getAnnotationsByType(DimensionMethodSource.class);
 
-        var lists = Arrays.stream(freeConstraintsSource).map(methodSource -> {
+        List<List<Annotation>> lists = Arrays.stream(freeConstraintsSource).map(methodSource -> {
             return invokeDimensionMethodSource(context, methodSource);
         }).collect(Collectors.toList());
-        List<? extends List<Annotation>> cartesianProduct = lists.size() > 0 ? cartesianProduct((List) lists) : List.of();
+        // A Cartesian product is streamed, rather than materialized, so the first invocation needn't wait for it to be computed
+        Stream<List<Annotation>> cartesianProduct = lists.size() > 0 ? dimensionTuples(parameter, lists) : Stream.empty();
 
         ConstraintsMethodSource annotation = parameter.getAnnotation(ConstraintsMethodSource.class);
         var constraints = annotation != null ? invokeConstraintsMethodSource(context, annotation) : List.<List<Annotation>> of();
 
-        return Stream.concat(cartesianProduct.stream(), constraints.stream())
+        // Tuples requiring the same cluster are run one after another, sharing a cluster which is reset between them.
+        // Distinct elements of the dimensions yield distinct clusters, so only the tuples need grouping.
+        var parameterType = parameter.getType().asSubclass(KafkaCluster.class);
+        var declaredConstraints = getConstraintAnnotations(parameter, KafkaClusterConstraint.class);
+        Map<ClusterKey, List<List<Annotation>>> tuplesByKey = constraints.stream()
+                .collect(Collectors.groupingBy(additionalConstraints -> {
+                    var effectiveConstraints = new ArrayList<>(declaredConstraints);
+                    effectiveConstraints.addAll(additionalConstraints);
+                    return ClusterKey.of(parameterType, effectiveConstraints);
+                }, LinkedHashMap::new, Collectors.toList()));
+        ClusterPool templatePool = context.getStore(POOL_NAMESPACE)
+                .getOrComputeIfAbsent(TEMPLATE_POOL_KEY, __ -> ClusterPool.forGroupedLeases(), ClusterPool.class);
+
+        return Stream.concat(cartesianProduct, tuplesByKey.values().stream().flatMap(List::stream))
                 .map((List<Annotation> additionalConstraints) -> {
                     return new TestTemplateInvocationContext() {
                         @Override
                         public String getDisplayName(int invocationIndex) {
-                            List<?> list = invocationIndex > cartesianProduct.size() ? constraints.get(invocationIndex - cartesianProduct.size() - 1)
-                                    : cartesianProduct.get(invocationIndex - 1);
-                            return list.toString();
+                            return additionalConstraints.toString();
                         }
 
                         @Override
@@ -213,7 +246,8 @@ public class KafkaClusterExtension implements
                                 @Override
                                 public Object resolveParameter(ParameterContext parameterContext,
                                                                ExtensionContext extensionContext) {
-                                    return KafkaClusterExtension.resolveParameter(parameterContext, extensionContext, additionalConstraints);
+                                    return KafkaClusterExtension.resolveParameter(parameterContext, extensionContext, additionalConstraints,
+                                            parameterContext.getParameter().equals(parameter) ? templatePool : null);
                                 }
                             });
                         }
@@ -221,6 +255,18 @@ public class KafkaClusterExtension implements
                 });
     }
 
+    private static Stream<List<Annotation>> dimensionTuples(Parameter parameter, List<List<Annotation>> dimensions) {
+        DimensionCoverage coverage = parameter.getAnnotation(DimensionCoverage.class);
+        if (coverage == null) {
+            return new CartesianProduct<>(dimensions).stream();
+        }
+        if (coverage.strength() < 1) {
+            throw new ExtensionConfigurationException("@" + DimensionCoverage.class.getSimpleName() + " on " + parameter
+                    + " has strength " + coverage.strength() + ", but it must be at least 1");
+        }
+        return CoveringArray.of(dimensions, coverage.strength()).stream();
+    }
+
     @NotNull
     private static List<List<Annotation>> invokeConstraintsMethodSource(ExtensionContext context,
                                                                         ConstraintsMethodSource methodSource) {
@@ -430,6 +476,37 @@ public class KafkaClusterExtension implements
         }
     }
 
+    /**
+     * A cluster leased from a {@link ClusterPool}, which is released back to the pool,
+     * rather than closed, at the end of the scope that leased it.
+     */
+    static class Leased extends Closeable<KafkaCluster> {
+
+        private final ClusterPool pool;
+        private final ClusterKey key;
+
+        /**
+         * Instantiates a new Leased.
+         *
+         * @param sourceElement the source element
+         * @param clusterName the cluster name
+         * @param cluster the leased cluster
+         * @param pool the pool the cluster was leased from
+         * @param key the key the cluster was leased with
+         */
+        Leased(AnnotatedElement sourceElement, String clusterName, KafkaCluster cluster, ClusterPool pool, ClusterKey key) {
+            super(sourceElement, clusterName, cluster);
+            this.pool = pool;
+            this.key = key;
+        }
+
+        @Override
+        public void close() throws Throwable {
+            LOGGER.log(TRACE, "Releasing ''{0}'' to the cluster pool", get());
+            pool.release(key, get());
+        }
+    }
+
     @Override
     public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) throws ParameterResolutionException {
         return !parameterContext.getDeclaringExecutable().isAnnotationPresent(TestTemplate.class)
@@ -477,6 +554,14 @@ public class KafkaClusterExtension implements
                                           ExtensionContext extensionContext,
                                           List<Annotation> extraConstraints)
             throws ParameterResolutionException {
+        return resolveParameter(parameterContext, extensionContext, extraConstraints, null);
+    }
+
+    private static Object resolveParameter(ParameterContext parameterContext,
+                                           ExtensionContext extensionContext,
+                                           List<Annotation> extraConstraints,
+                                           ClusterPool templatePool)
+            throws ParameterResolutionException {
         Parameter parameter = parameterContext.getParameter();
         Class<?> type = parameter.getType();
         LOGGER.log(TRACE,
@@ -488,7 +573,7 @@ public class KafkaClusterExtension implements
             var paramType = type.asSubclass(KafkaCluster.class);
             var constraints = getConstraintAnnotations(parameter, KafkaClusterConstraint.class);
             constraints.addAll(extraConstraints);
-            return getCluster(parameter, paramType, constraints, extensionContext);
+            return getCluster(parameter, paramType, constraints, extensionContext, templatePool);
         }
         else if (Admin.class.isAssignableFrom(type)) {
             var paramType = type.asSubclass(Admin.class);
@@ -538,22 +623,32 @@ public class KafkaClusterExtension implements
     }
 
     private void injectFields(ExtensionContext context, Object testInstance, Class<?> testClass, Predicate<Field> predicate) {
-        findFields(
+        List<Field> clusterFields = findFields(
                 testClass,
                 field -> predicate.test(field) && KafkaCluster.class.isAssignableFrom(field.getType()),
-                HierarchyTraversalMode.BOTTOM_UP)
-                .forEach(field -> {
-                    assertSupportedType("field", field.getType());
-                    try {
-                        var accessibleField = makeAccessible(field);
-                        List<Annotation> constraints = getConstraintAnnotations(accessibleField, KafkaClusterConstraint.class);
-                        accessibleField.set(testInstance,
-                                getCluster(accessibleField, accessibleField.getType().asSubclass(KafkaCluster.class), constraints, context));
-                    }
-                    catch (Throwable t) {
-                        ExceptionUtils.throwAsUncheckedException(t);
-                    }
-                });
+                HierarchyTraversalMode.BOTTOM_UP);
+        clusterFields.forEach(field -> assertSupportedType("field", field.getType()));
+        // The clusters are independent of each other, so provision them concurrently
+        List<CompletableFuture<KafkaCluster>> clusters = new ArrayList<>();
+        for (Field field : clusterFields) {
+            var accessibleField = makeAccessible(field);
+            List<Annotation> constraints = getConstraintAnnotations(accessibleField, KafkaClusterConstraint.class);
+            Class<? extends KafkaCluster> type = accessibleField.getType().asSubclass(KafkaCluster.class);
+            Supplier<KafkaCluster> provision = () -> getCluster(accessibleField, type, constraints, context, null);
+            clusters.add(clusterFields.size() > 1 ? CompletableFuture.supplyAsync(provision, PROVISIONING_EXECUTOR)
+                    : CompletableFuture.completedFuture(provision.get()));
+        }
+        for (int i = 0; i < clusterFields.size(); i++) {
+            try {
+                clusterFields.get(i).set(testInstance, clusters.get(i).join());
+            }
+            catch (CompletionException e) {
+                ExceptionUtils.throwAsUncheckedException(e.getCause());
+            }
+            catch (Throwable t) {
+                ExceptionUtils.throwAsUncheckedException(t);
+            }
+        }
 
         findFields(testClass,
                 field -> predicate.test(field) && Admin.class.isAssignableFrom(field.getType()),
@@ -776,7 +871,8 @@ public class KafkaClusterExtension implements
     private static KafkaCluster getCluster(AnnotatedElement sourceElement,
                                            Class<? extends KafkaCluster> type,
                                            List<Annotation> constraints,
-                                           ExtensionContext extensionContext) {
+                                           ExtensionContext extensionContext,
+                                           ClusterPool templatePool) {
         // Semantic we want for clients without specified clusterId is "closest enclosing scope"
         // If we used generated keys A, B, C we could get this by iterating lookup from A, B until we found
         // and unused key, and using the last found
@@ -787,54 +883,168 @@ public class KafkaClusterExtension implements
         // This makes the lookup path simple
         // Can also choose where in the UUID space we start (i.e. don't use one of the UUID versions
         // which the user is likely to use when choosing their ID).
+        // Names are allocated by claiming them with Store.getOrComputeIfAbsent, which is atomic, so that declarations
+        // being resolved concurrently can't be given the same name.
         ExtensionContext.Store store = extensionContext.getStore(CLUSTER_NAMESPACE);
-        String clusterName;
+        // The run's pool takes precedence, so clusters can also be shared with scopes outside the template
+        ClusterPool pool = isClusterPoolEnabled(extensionContext) ? getClusterPool(extensionContext) : templatePool;
+        Closeable<KafkaCluster> closeableCluster;
         if (sourceElement.isAnnotationPresent(Name.class)
                 && !sourceElement.getAnnotation(Name.class).value().isEmpty()) {
-            clusterName = sourceElement.getAnnotation(Name.class).value();
-            Object o = store.get(clusterName);
-            if (o != null) {
+            String clusterName = sourceElement.getAnnotation(Name.class).value();
+            closeableCluster = claimClusterName(store, clusterName, extensionContext, type, sourceElement, constraints, pool);
+            if (closeableCluster == null) {
                 throw new ExtensionConfigurationException(
                         "A " + KafkaCluster.class.getSimpleName() + "-typed declaration with @Name(\"" + clusterName + "\") is already in scope");
             }
         }
         else {
-            var clusterIdIter = uuidsFrom(STARTING_PREFIX);
-            clusterName = findFirstUnusedClusterId(store, clusterIdIter);
+            var clusterIdIter = uuidsFrom(STARTING_PREFIX).iterator();
+            do {
+                closeableCluster = claimClusterName(store, clusterIdIter.next(), extensionContext, type, sourceElement, constraints, pool);
+            } while (closeableCluster == null);
         }
+        if (pool != null) {
+            return closeableCluster.get();
+        }
+        String clusterName = closeableCluster.clusterName;
+        KafkaCluster cluster = closeableCluster.get();
+        LOGGER.log(TRACE,
+                "test {0}: decl {1}: cluster ''{2}'': Starting",
+                extensionContext.getUniqueId(),
+                sourceElement,
+                clusterName);
+        // The cluster is already owned by the store, which will close it when the scope ends, even if it fails to start
+        return startOwnedCluster(cluster);
+    }
 
+    /**
+     * Claims the given cluster name in the given store, provisioning the cluster to be known by it.
+     *
+     * @param pool the pool from which to lease the cluster, or null if the cluster should be created for the scope
+     * @return the (leased and started, or created and unstarted) cluster, or null if the name was already in use
+     */
+    private static Closeable<KafkaCluster> claimClusterName(ExtensionContext.Store store, String clusterName, ExtensionContext extensionContext,
+                                                           Class<? extends KafkaCluster> type, AnnotatedElement sourceElement,
+                                                           List<Annotation> constraints, ClusterPool pool) {
         LOGGER.log(TRACE,
                 "test {0}: decl {1}: cluster ''{2}'': Looking up cluster",
                 extensionContext.getUniqueId(),
                 sourceElement,
                 clusterName);
+        var claimed = new AtomicBoolean();
         Closeable<KafkaCluster> closeableCluster = store.getOrComputeIfAbsent(clusterName,
                 __ -> {
-                    return createCluster(extensionContext, clusterName, type, sourceElement, constraints);
+                    claimed.set(true);
+                    return pool != null ? leaseCluster(extensionContext, pool, clusterName, type, sourceElement, constraints)
+                            : createCluster(extensionContext, clusterName, type, sourceElement, constraints);
                 },
                 (Class<Closeable<KafkaCluster>>) (Class) Closeable.class);
         Objects.requireNonNull(closeableCluster);
-        KafkaCluster cluster = closeableCluster.get();
+        return claimed.get() ? closeableCluster : null;
+    }
+
+    private static boolean isClusterPoolEnabled(ExtensionContext extensionContext) {
+        return extensionContext.getConfigurationParameter(CLUSTER_POOL_ENABLED_PARAMETER)
+                .map(Boolean::parseBoolean)
+                .orElse(false);
+    }
+
+    private static ClusterPool getClusterPool(ExtensionContext extensionContext) {
+        return extensionContext.getRoot().getStore(POOL_NAMESPACE)
+                .getOrComputeIfAbsent(ClusterPool.class, __ -> new ClusterPool(ClusterPrewarmer::claim), ClusterPool.class);
+    }
+
+    private static Closeable<KafkaCluster> leaseCluster(ExtensionContext extensionContext, ClusterPool pool, String clusterName,
+                                                        Class<? extends KafkaCluster> type, AnnotatedElement sourceElement,
+                                                        List<Annotation> constraints) {
+        ClusterKey key = ClusterKey.of(type, constraints);
+        KafkaCluster cluster = pool.lease(key, () -> {
+            KafkaCluster created = createCluster(extensionContext, clusterName, type, sourceElement, constraints).get();
+            LOGGER.log(TRACE,
+                    "test {0}: decl {1}: cluster ''{2}'': Starting",
+                    extensionContext.getUniqueId(),
+                    sourceElement,
+                    clusterName);
+            return startCluster(created);
+        });
         LOGGER.log(TRACE,
-                "test {0}: decl {1}: cluster ''{2}'': Starting",
+                "test {0}: decl: {1}: cluster ''{2}'': Leased {3} from pool",
                 extensionContext.getUniqueId(),
                 sourceElement,
-                clusterName);
-        cluster.start();
+                clusterName,
+                cluster);
+        return new Leased(sourceElement, clusterName, cluster, pool, key);
+    }
+
+    /**
+     * Creates a cluster using the given strategy, remembering how it was created so that the time taken to provision
+     * it can be reported to the strategy once it has been {@link #startCluster(KafkaCluster) started}.
+     *
+     * @param strategy the provisioning strategy
+     * @param constraints the constraints
+     * @param declarationType the declaration type
+     * @return the created cluster
+     */
+    static KafkaCluster create(KafkaClusterProvisioningStrategy strategy, List<Annotation> constraints, Class<? extends KafkaCluster> declarationType) {
+        long createdNanos = System.nanoTime();
+        KafkaCluster cluster = strategy.create(constraints, declarationType);
+        UNSTARTED.put(cluster, new Provisioning(strategy, constraints, declarationType, createdNanos));
         return cluster;
     }
 
-    private static String findFirstUnusedClusterId(ExtensionContext.Store store, Iterable<String> clusterIdIter) {
-        var it = clusterIdIter.iterator();
-        while (true) {
-            String clusterId = it.next();
-            var cluster = store.get(clusterId);
-            if (cluster == null) {
-                return clusterId;
+    /**
+     * Starts the given cluster, closing it if it fails to start.
+     * This is for clusters which have no other owner, such as those provisioned for a pool, which would otherwise
+     * be leaked on failure. See {@link #startOwnedCluster(KafkaCluster)} for the rest.
+     *
+     * @param cluster the cluster
+     * @return the started cluster
+     */
+    static KafkaCluster startCluster(KafkaCluster cluster) {
+        try {
+            return startOwnedCluster(cluster);
+        }
+        catch (RuntimeException e) {
+            try {
+                cluster.close();
+            }
+            catch (Exception closeException) {
+                e.addSuppressed(closeException);
             }
+            throw e;
         }
     }
 
+    /**
+     * Starts the given cluster, leaving it to its owner to close it if it fails to start.
+     * The startup report of the started cluster is recorded in the {@link ClusterStartupSummary}, and if the cluster
+     * was {@link #create(KafkaClusterProvisioningStrategy, List, Class) created} by this extension the time taken to
+     * provision it is reported to the strategy which created it.
+     *
+     * @param cluster the cluster
+     * @return the started cluster
+     */
+    private static KafkaCluster startOwnedCluster(KafkaCluster cluster) {
+        try {
+            cluster.start();
+        }
+        catch (RuntimeException e) {
+            UNSTARTED.remove(cluster);
+            throw e;
+        }
+        ClusterStartupSummary.record(cluster);
+        var provisioning = UNSTARTED.remove(cluster);
+        if (provisioning != null) {
+            provisioning.strategy().recordProvisioningTime(provisioning.constraints(), provisioning.declarationType(),
+                    Duration.ofNanos(System.nanoTime() - provisioning.createdNanos()));
+        }
+        return cluster;
+    }
+
+    private record Provisioning(KafkaClusterProvisioningStrategy strategy, List<Annotation> constraints, Class<? extends KafkaCluster> declarationType,
+                                long createdNanos) {}
+
     private static String findLastUsedClusterId(ExtensionContext.Store store, Iterable<String> clusterIdIter) {
         var it = clusterIdIter.iterator();
         String last = null;
@@ -860,7 +1070,7 @@ public class KafkaClusterExtension implements
                     LOGGER.log(TRACE, "test {0}: decl {1}: Creating Admin",
                             extensionContext.getUniqueId(),
                             sourceElement);
-                    return new Closeable<>(sourceElement, cluster.getClusterId(), Admin.create(cluster.getKafkaClientConfiguration()));
+                    return new Closeable<>(sourceElement, cluster.getClusterId(), Admin.create(getClientConfiguration(cluster, sourceElement)));
                 },
                         (Class<Closeable<Admin>>) (Class) Closeable.class)
                 .get();
@@ -889,7 +1099,7 @@ public class KafkaClusterExtension implements
                     LOGGER.log(TRACE, "test {0}: decl {1}: Creating KafkaProducer<>",
                             extensionContext.getUniqueId(),
                             sourceElement);
-                    return new Closeable<>(sourceElement, cluster.getClusterId(), new KafkaProducer<>(cluster.getKafkaClientConfiguration(),
+                    return new Closeable<>(sourceElement, cluster.getClusterId(), new KafkaProducer<>(getClientConfiguration(cluster, sourceElement),
                             keySerializer, valueSerializer));
                 },
                         (Class<Closeable<KafkaProducer<?, ?>>>) (Class) Closeable.class)
@@ -919,13 +1129,25 @@ public class KafkaClusterExtension implements
                     LOGGER.log(TRACE, "test {0}: decl {1}: Creating KafkaConsumer<>",
                             extensionContext.getUniqueId(),
                             sourceElement);
-                    return new Closeable<>(sourceElement, cluster.getClusterId(), new KafkaConsumer<>(cluster.getKafkaClientConfiguration(),
+                    return new Closeable<>(sourceElement, cluster.getClusterId(), new KafkaConsumer<>(getClientConfiguration(cluster, sourceElement),
                             keySerializer, valueSerializer));
                 },
                         (Class<Closeable<KafkaConsumer<?, ?>>>) (Class) Closeable.class)
                 .get();
     }
 
+    /**
+     * Gets the configuration for a client of the given cluster, including any {@link ClientConfig @ClientConfig}
+     * declared on the source element.
+     */
+    private static Map<String, Object> getClientConfiguration(KafkaCluster cluster, AnnotatedElement sourceElement) {
+        // The cluster's configuration may be immutable or shared, so each client gets its own copy
+        Map<String, Object> configuration = new HashMap<>(cluster.getKafkaClientConfiguration());
+        AnnotationSupport.findRepeatableAnnotations(sourceElement, ClientConfig.class)
+                .forEach(clientConfig -> configuration.put(clientConfig.name(), clientConfig.value()));
+        return configuration;
+    }
+
     private static Closeable<KafkaCluster> createCluster(ExtensionContext extensionContext, String clusterName, Class<? extends KafkaCluster> type,
                                                          AnnotatedElement sourceElement,
                                                          List<Annotation> constraints) {
@@ -947,7 +1169,7 @@ public class KafkaClusterExtension implements
                 sourceElement,
                 clusterName,
                 best);
-        KafkaCluster c = best.create(constraints, type);
+        KafkaCluster c = create(best, constraints, type);
         LOGGER.log(TRACE,
                 "test {0}: decl: {1}: cluster ''{2}'': Created",
                 extensionContext.getUniqueId(),
@@ -963,7 +1185,7 @@ public class KafkaClusterExtension implements
      * the given {@code metaAnnotationType}.
      */
     @NotNull
-    private static ArrayList<Annotation> getConstraintAnnotations(AnnotatedElement sourceElement, Class<? extends Annotation> metaAnnotationType) {
+    static ArrayList<Annotation> getConstraintAnnotations(AnnotatedElement sourceElement, Class<? extends Annotation> metaAnnotationType) {
         ArrayList<Annotation> constraints;
         if (AnnotationSupport.isAnnotated(sourceElement, metaAnnotationType)) {
             Annotation[] annotations = sourceElement.getAnnotations();
@@ -1006,39 +1228,7 @@ public class KafkaClusterExtension implements
     static KafkaClusterProvisioningStrategy findBestProvisioningStrategy(
                                                                          List<Annotation> constraints,
                                                                          Class<? extends KafkaCluster> declarationType) {
-        ServiceLoader<KafkaClusterProvisioningStrategy> loader = ServiceLoader.load(KafkaClusterProvisioningStrategy.class);
-        return loader.stream().map(ServiceLoader.Provider::get)
-                .filter(strategy -> {
-                    boolean supports = strategy.supportsType(declarationType);
-                    if (!supports) {
-                        LOGGER.log(TRACE, "Excluding {0} because it is not compatible with declaration of type {1}",
-                                strategy, declarationType.getName());
-                    }
-                    return supports;
-                })
-                .filter(strategy -> {
-                    for (Annotation anno : constraints) {
-                        boolean supports = strategy.supportsAnnotation(anno);
-                        if (!supports) {
-                            LOGGER.log(TRACE, "Excluding {0} because doesn't support {1}",
-                                    strategy, anno);
-                            return false;
-                        }
-                    }
-                    return true;
-                })
-                .min(Comparator.comparing(x -> x.estimatedProvisioningTimeMs(constraints, declarationType)))
-                .orElseThrow(() -> {
-                    var strategies = ServiceLoader.load(KafkaClusterProvisioningStrategy.class).stream().map(ServiceLoader.Provider::type).collect(Collectors.toList());
-                    return new ExtensionConfigurationException("No provisioning strategy for a declaration of type " + declarationType.getName()
-                            + " and supporting all of " + constraints +
-                            " was found (tried: " + classNames(strategies) + ")");
-                });
-    }
-
-    @NotNull
-    private static List<String> classNames(Collection<? extends Class<?>> constraints) {
-        return constraints.stream().map(Class::getName).sorted().collect(Collectors.toList());
+        return ProvisioningStrategies.best(constraints, declarationType);
     }
 
     private void assertSupportedType(String target, Class<?> type) {
@@ -0,0 +1,85 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.junit5ext;
+
+import java.lang.annotation.Annotation;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+
+import io.kroxylicious.testing.kafka.api.KafkaCluster;
+import io.kroxylicious.testing.kafka.api.KafkaClusterProvisioningStrategy;
+
+import static java.lang.System.Logger.Level.TRACE;
+
+/**
+ * The {@link KafkaClusterProvisioningStrategy} service providers, which are loaded and instantiated once, and the
+ * strategy chosen for each {@link ClusterKey}, which is chosen once.
+ * Strategies are expected to be stateless, so that a single instance of each can be shared by all declarations.
+ */
+final class ProvisioningStrategies {
+
+    private static final System.Logger LOGGER = System.getLogger(ProvisioningStrategies.class.getName());
+
+    private static final Map<ClusterKey, KafkaClusterProvisioningStrategy> CHOSEN = new ConcurrentHashMap<>();
+
+    private ProvisioningStrategies() {
+    }
+
+    // Loads the providers on first use
+    private static final class Providers {
+        private static final List<KafkaClusterProvisioningStrategy> STRATEGIES = ServiceLoader.load(KafkaClusterProvisioningStrategy.class).stream()
+                .map(ServiceLoader.Provider::get)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * Gets the strategy for provisioning a cluster for a declaration: the strategy estimated to be quickest among
+     * those supporting the declaration type and all the constraints.
+     *
+     * @param constraints the constraints
+     * @param declarationType the declaration type
+     * @return the strategy
+     * @throws ExtensionConfigurationException if no strategy supports the declaration
+     */
+    static KafkaClusterProvisioningStrategy best(List<Annotation> constraints, Class<? extends KafkaCluster> declarationType) {
+        // A failed choice throws, so isn't cached
+        return CHOSEN.computeIfAbsent(ClusterKey.of(declarationType, constraints), key -> choose(constraints, declarationType));
+    }
+
+    private static KafkaClusterProvisioningStrategy choose(List<Annotation> constraints, Class<? extends KafkaCluster> declarationType) {
+        return Providers.STRATEGIES.stream()
+                .filter(strategy -> {
+                    boolean supports = strategy.supportsType(declarationType);
+                    if (!supports) {
+                        LOGGER.log(TRACE, "Excluding {0} because it is not compatible with declaration of type {1}",
+                                strategy, declarationType.getName());
+                    }
+                    return supports;
+                })
+                .filter(strategy -> {
+                    for (Annotation anno : constraints) {
+                        boolean supports = strategy.supportsAnnotation(anno);
+                        if (!supports) {
+                            LOGGER.log(TRACE, "Excluding {0} because doesn't support {1}",
+                                    strategy, anno);
+                            return false;
+                        }
+                    }
+                    return true;
+                })
+                .min(Comparator.comparing(x -> x.estimatedProvisioningTimeMs(constraints, declarationType)))
+                .orElseThrow(() -> new ExtensionConfigurationException("No provisioning strategy for a declaration of type " + declarationType.getName()
+                        + " and supporting all of " + constraints +
+                        " was found (tried: " + Providers.STRATEGIES.stream().map(strategy -> strategy.getClass().getName()).sorted().collect(Collectors.toList())
+                        + ")"));
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.junit5ext;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CartesianProductTest {
+
+    @Test
+    void firstDomainVariesSlowest() {
+        var product = new CartesianProduct<>(List.of(List.of(1, 3), List.of("zstd", "snappy", "lz4")));
+
+        assertThat(product.size()).isEqualTo(6);
+        assertThat(product.stream()).containsExactly(
+                List.of(1, "zstd"),
+                List.of(1, "snappy"),
+                List.of(1, "lz4"),
+                List.of(3, "zstd"),
+                List.of(3, "snappy"),
+                List.of(3, "lz4"));
+    }
+
+    @Test
+    void singleDomain() {
+        assertThat(new CartesianProduct<>(List.of(List.of("a", "b"))).stream()).containsExactly(List.of("a"), List.of("b"));
+    }
+
+    @Test
+    void emptyDomainGivesEmptyProduct() {
+        var product = new CartesianProduct<>(List.of(List.of(1, 2), List.of()));
+
+        assertThat(product.size()).isZero();
+        assertThat(product.iterator()).isExhausted();
+    }
+
+    @Test
+    void noDomainsIsRejected() {
+        assertThatThrownBy(() -> new CartesianProduct<>(List.of())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void largeProductIsComputedLazily() {
+        // 100^10 tuples, which could never be materialized
+        List<Integer> domain = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        var product = new CartesianProduct<>(Collections.nCopies(10, domain));
+
+        assertThat(product.size()).isEqualTo(Long.MAX_VALUE);
+        assertThat(product.stream().skip(101).findFirst()).contains(List.of(0, 0, 0, 0, 0, 0, 0, 0, 1, 1));
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.junit5ext;
+
+import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.kroxylicious.testing.kafka.api.KafkaCluster;
+import io.kroxylicious.testing.kafka.api.ResettableKafkaCluster;
+import io.kroxylicious.testing.kafka.common.BrokerCluster;
+import io.kroxylicious.testing.kafka.common.BrokerConfig;
+import io.kroxylicious.testing.kafka.common.ZooKeeperCluster;
+import io.kroxylicious.testing.kafka.invm.InVMKafkaCluster;
+
+import static io.kroxylicious.testing.kafka.common.ConstraintUtils.brokerCluster;
+import static io.kroxylicious.testing.kafka.common.ConstraintUtils.brokerConfig;
+import static io.kroxylicious.testing.kafka.common.ConstraintUtils.zooKeeperCluster;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ClusterPoolTest {
+
+    @BrokerCluster(numBrokers = 3)
+    @ZooKeeperCluster
+    @BrokerConfig(name = "compression.type", value = "zstd")
+    KafkaCluster declared;
+
+    private final AtomicInteger created = new AtomicInteger();
+
+    @Test
+    void keyIsIndependentOfHowConstraintsWereObtained() throws Exception {
+        List<Annotation> reflected = List.of(ClusterPoolTest.class.getDeclaredField("declared").getAnnotations());
+        List<Annotation> synthesized = List.of(zooKeeperCluster(), brokerConfig("compression.type", "zstd"), brokerCluster(3));
+
+        assertThat(ClusterKey.of(KafkaCluster.class, synthesized)).isEqualTo(ClusterKey.of(KafkaCluster.class, reflected));
+    }
+
+    @Test
+    void keyReflectsTheBrokerConfigWhichTakesEffect() {
+        var lastIsTwo = ClusterKey.of(KafkaCluster.class, List.of(brokerConfig("x", "1"), brokerConfig("x", "2")));
+        var lastIsOne = ClusterKey.of(KafkaCluster.class, List.of(brokerConfig("x", "2"), brokerConfig("x", "1")));
+
+        assertThat(lastIsOne).isNotEqualTo(lastIsTwo);
+        assertThat(ClusterKey.of(KafkaCluster.class, List.of(brokerConfig("x", "2")))).isEqualTo(lastIsTwo);
+        assertThat(ClusterKey.of(KafkaCluster.class, List.of(brokerConfig("y", "1"), brokerConfig("x", "2"))))
+                .isEqualTo(ClusterKey.of(KafkaCluster.class, List.of(brokerConfig("x", "2"), brokerConfig("y", "1"))));
+    }
+
+    @Test
+    void keyDistinguishesConstraintsAndDeclarationType() {
+        var key = ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(1)));
+
+        assertThat(ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(3)))).isNotEqualTo(key);
+        assertThat(ClusterKey.of(InVMKafkaCluster.class, List.of(brokerCluster(1)))).isNotEqualTo(key);
+    }
+
+    @Test
+    void releasedClusterIsLeasedAgain() throws Throwable {
+        var pool = new ClusterPool();
+        var key = ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(1)));
+
+        var first = pool.lease(key, this::newCluster);
+        pool.release(key, first);
+        var second = pool.lease(key, this::newCluster);
+
+        assertThat(second).isSameAs(first);
+        assertThat(created).hasValue(1);
+        assertThat(((FakeCluster) first).resets).isEqualTo(1);
+    }
+
+    @Test
+    void nonResettableClusterIsClosedOnRelease() throws Throwable {
+        var pool = new ClusterPool();
+        var key = ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(1)));
+        var cluster = new NonResettableCluster();
+
+        pool.release(key, cluster);
+
+        assertThat(cluster.closed).isTrue();
+        assertThat(pool.idleCount()).isZero();
+    }
+
+    @Test
+    void clusterWhichFailsToResetIsClosedOnRelease() throws Throwable {
+        var pool = new ClusterPool();
+        var key = ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(1)));
+        var cluster = (FakeCluster) pool.lease(key, this::newCluster);
+        cluster.failReset = true;
+
+        pool.release(key, cluster);
+
+        assertThat(cluster.closed).isTrue();
+        assertThat(pool.idleCount()).isZero();
+    }
+
+    @Test
+    void prewarmedClusterIsLeasedBeforeProvisioningANewOne() {
+        var prewarmed = new FakeCluster();
+        var key = ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(1)));
+        var pool = new ClusterPool(k -> k.equals(key) ? Optional.of(prewarmed) : Optional.empty());
+
+        assertThat(pool.lease(key, this::newCluster)).isSameAs(prewarmed);
+        assertThat(created).hasValue(0);
+    }
+
+    @Test
+    void leasedClusterIsNotSharedBetweenScopes() {
+        var pool = new ClusterPool();
+        var key = ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(1)));
+
+        var first = pool.lease(key, this::newCluster);
+        var second = pool.lease(key, this::newCluster);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(created).hasValue(2);
+    }
+
+    @Test
+    void clusterIsNotLeasedForDifferentKey() throws Throwable {
+        var pool = new ClusterPool();
+        var oneBroker = ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(1)));
+        var threeBrokers = ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(3)));
+
+        var first = pool.lease(oneBroker, this::newCluster);
+        pool.release(oneBroker, first);
+        var second = pool.lease(threeBrokers, this::newCluster);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(pool.idleCount()).isEqualTo(1);
+    }
+
+    @Test
+    void groupedLeasePoolClosesIdleClustersForOtherKeys() throws Throwable {
+        var pool = ClusterPool.forGroupedLeases();
+        var oneBroker = ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(1)));
+        var threeBrokers = ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(3)));
+
+        var first = (FakeCluster) pool.lease(oneBroker, this::newCluster);
+        pool.release(oneBroker, first);
+        assertThat(pool.lease(oneBroker, this::newCluster)).isSameAs(first);
+        pool.release(oneBroker, first);
+        var second = pool.lease(threeBrokers, this::newCluster);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(first.closed).isTrue();
+        assertThat(pool.idleCount()).isZero();
+    }
+
+    @Test
+    void closeClosesIdleClusters() throws Throwable {
+        var pool = new ClusterPool();
+        var key = ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(1)));
+        var cluster = (FakeCluster) pool.lease(key, this::newCluster);
+        pool.release(key, cluster);
+
+        pool.close();
+
+        assertThat(cluster.closed).isTrue();
+        assertThat(pool.idleCount()).isZero();
+        assertThatThrownBy(() -> pool.lease(key, this::newCluster)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void clusterReleasedAfterCloseIsClosed() throws Throwable {
+        var pool = new ClusterPool();
+        var key = ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(1)));
+        var cluster = (FakeCluster) pool.lease(key, this::newCluster);
+
+        pool.close();
+        pool.release(key, cluster);
+
+        assertThat(cluster.closed).isTrue();
+    }
+
+    private KafkaCluster newCluster() {
+        created.incrementAndGet();
+        return new FakeCluster();
+    }
+
+    static class FakeCluster extends NonResettableCluster implements ResettableKafkaCluster {
+        int resets = 0;
+        boolean failReset = false;
+
+        @Override
+        public void reset() {
+            if (failReset) {
+                throw new IllegalStateException("reset failed");
+            }
+            resets++;
+        }
+    }
+
+    static class NonResettableCluster implements KafkaCluster {
+        boolean closed = false;
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public int getNumOfBrokers() {
+            return 1;
+        }
+
+        @Override
+        public String getBootstrapServers() {
+            return "localhost:9092";
+        }
+
+        @Override
+        public String getClusterId() {
+            return null;
+        }
+
+        @Override
+        public Map<String, Object> getKafkaClientConfiguration() {
+            return Map.of();
+        }
+
+        @Override
+        public Map<String, Object> getKafkaClientConfiguration(String user, String password) {
+            return Map.of();
+        }
+    }
+}
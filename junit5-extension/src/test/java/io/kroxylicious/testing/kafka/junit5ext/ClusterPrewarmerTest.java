@@ -0,0 +1,139 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.junit5ext;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestTemplate;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.kroxylicious.testing.kafka.api.KafkaCluster;
+import io.kroxylicious.testing.kafka.common.BrokerCluster;
+import io.kroxylicious.testing.kafka.common.ZooKeeperCluster;
+import io.kroxylicious.testing.kafka.invm.InVMKafkaCluster;
+
+import static io.kroxylicious.testing.kafka.common.ConstraintUtils.brokerCluster;
+import static io.kroxylicious.testing.kafka.common.ConstraintUtils.zooKeeperCluster;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClusterPrewarmerTest {
+
+    @ExtendWith(KafkaClusterExtension.class)
+    static class Declarations {
+        @BrokerCluster(numBrokers = 3)
+        static KafkaCluster staticCluster;
+
+        @BrokerCluster(numBrokers = 3)
+        KafkaCluster sameConstraints;
+
+        InVMKafkaCluster inVm;
+
+        void parameter(@ZooKeeperCluster KafkaCluster cluster) {
+        }
+
+        @TestTemplate
+        void template(KafkaCluster cluster) {
+        }
+
+        class Inner {
+            void parameter(KafkaCluster cluster) {
+            }
+        }
+    }
+
+    static class WithoutExtension {
+        KafkaCluster cluster;
+
+        void parameter(KafkaCluster cluster) {
+        }
+    }
+
+    @Test
+    void windowProvisionsAheadInPlanOrder() {
+        var one = ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(1)));
+        var two = ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(2)));
+        var three = ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(3)));
+        Map<ClusterKey, List<Annotation>> declared = new LinkedHashMap<>();
+        declared.put(one, List.of(brokerCluster(1)));
+        declared.put(two, List.of(brokerCluster(2)));
+        declared.put(three, List.of(brokerCluster(3)));
+        List<ClusterKey> provisioned = new ArrayList<>();
+        var window = new ClusterPrewarmer.Window(declared, 2, Runnable::run, (key, constraints) -> {
+            provisioned.add(key);
+            return new ClusterPoolTest.FakeCluster();
+        });
+
+        window.fill();
+        assertThat(provisioned).containsExactly(one, two);
+
+        assertThat(window.claim(one)).isPresent();
+        assertThat(provisioned).containsExactly(one, two, three);
+        assertThat(window.claim(one)).isEmpty();
+        assertThat(window.close()).hasSize(2);
+    }
+
+    @Test
+    void windowSkipsClustersProvisionedOnDemand() {
+        var one = ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(1)));
+        var two = ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(2)));
+        Map<ClusterKey, List<Annotation>> declared = new LinkedHashMap<>();
+        declared.put(one, List.of(brokerCluster(1)));
+        declared.put(two, List.of(brokerCluster(2)));
+        List<ClusterKey> provisioned = new ArrayList<>();
+        var window = new ClusterPrewarmer.Window(declared, 1, Runnable::run, (key, constraints) -> {
+            provisioned.add(key);
+            return new ClusterPoolTest.FakeCluster();
+        });
+
+        window.fill();
+        // The test declaring the second cluster ran before the first claimed its cluster
+        assertThat(window.claim(two)).isEmpty();
+        assertThat(window.claim(one)).isPresent();
+        assertThat(provisioned).containsExactly(one);
+        assertThat(window.close()).isEmpty();
+    }
+
+    @Test
+    void findsDistinctFieldDeclarations() {
+        var declared = ClusterPrewarmer.declaredClusters(Declarations.class);
+
+        assertThat(declared).containsOnlyKeys(
+                ClusterKey.of(KafkaCluster.class, List.of(brokerCluster(3))),
+                ClusterKey.of(InVMKafkaCluster.class, List.of()));
+    }
+
+    @Test
+    void findsParameterDeclarations() throws Exception {
+        var declared = ClusterPrewarmer.declaredClusters(Declarations.class.getDeclaredMethod("parameter", KafkaCluster.class));
+
+        assertThat(declared).containsOnlyKeys(ClusterKey.of(KafkaCluster.class, List.of(zooKeeperCluster())));
+    }
+
+    @Test
+    void findsParameterDeclarationsInInnerClasses() throws Exception {
+        var declared = ClusterPrewarmer.declaredClusters(Declarations.Inner.class.getDeclaredMethod("parameter", KafkaCluster.class));
+
+        assertThat(declared).containsOnlyKeys(ClusterKey.of(KafkaCluster.class, List.of()));
+    }
+
+    @Test
+    void ignoresTestTemplates() throws Exception {
+        var declared = ClusterPrewarmer.declaredClusters(Declarations.class.getDeclaredMethod("template", KafkaCluster.class));
+
+        assertThat(declared).isEmpty();
+    }
+
+    @Test
+    void ignoresClassesNotUsingTheExtension() throws Exception {
+        assertThat(ClusterPrewarmer.declaredClusters(WithoutExtension.class)).isEmpty();
+        assertThat(ClusterPrewarmer.declaredClusters(WithoutExtension.class.getDeclaredMethod("parameter", KafkaCluster.class))).isEmpty();
+    }
+}
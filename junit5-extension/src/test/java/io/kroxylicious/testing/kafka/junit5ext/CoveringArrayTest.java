@@ -0,0 +1,106 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.junit5ext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoveringArrayTest {
+
+    private static final List<List<String>> BROKERS_X_METADATA_X_TLS_X_SASL_X_VERSION = List.of(
+            List.of("1 broker", "3 brokers"),
+            List.of("KRaft", "ZK"),
+            List.of("plain", "TLS"),
+            List.of("no SASL", "PLAIN", "SCRAM"),
+            List.of("3.1", "3.2", "3.3", "3.4"));
+
+    @Test
+    void pairwiseArrayCoversEveryPair() {
+        var tuples = CoveringArray.of(BROKERS_X_METADATA_X_TLS_X_SASL_X_VERSION, 2);
+
+        assertCovers(tuples, BROKERS_X_METADATA_X_TLS_X_SASL_X_VERSION, 2);
+        // The product has 96 tuples, and the 3 SASL mechanisms and 4 versions need at least 12
+        assertThat(tuples).hasSizeBetween(12, 14);
+    }
+
+    @Test
+    void threeWiseArrayCoversEveryTriple() {
+        var tuples = CoveringArray.of(BROKERS_X_METADATA_X_TLS_X_SASL_X_VERSION, 3);
+
+        assertCovers(tuples, BROKERS_X_METADATA_X_TLS_X_SASL_X_VERSION, 3);
+        assertThat(tuples).hasSizeLessThan(96);
+    }
+
+    @Test
+    void strengthOneUsesEveryElement() {
+        var tuples = CoveringArray.of(BROKERS_X_METADATA_X_TLS_X_SASL_X_VERSION, 1);
+
+        assertCovers(tuples, BROKERS_X_METADATA_X_TLS_X_SASL_X_VERSION, 1);
+        assertThat(tuples).hasSize(4);
+    }
+
+    @Test
+    void strengthOfAllDomainsGivesCartesianProduct() {
+        var domains = List.of(List.of(1, 3), List.of(2, 4));
+
+        assertThat(CoveringArray.of(domains, 2)).containsExactlyElementsOf(new CartesianProduct<>(domains));
+        assertThat(CoveringArray.of(domains, 5)).containsExactlyElementsOf(new CartesianProduct<>(domains));
+    }
+
+    @Test
+    void isDeterministic() {
+        assertThat(CoveringArray.of(BROKERS_X_METADATA_X_TLS_X_SASL_X_VERSION, 2))
+                .isEqualTo(CoveringArray.of(BROKERS_X_METADATA_X_TLS_X_SASL_X_VERSION, 2));
+    }
+
+    @Test
+    void emptyDomainGivesNoTuples() {
+        assertThat(CoveringArray.of(List.of(List.of(1, 2), List.of(), List.of(3)), 2)).isEmpty();
+    }
+
+    @Test
+    void strengthMustBePositive() {
+        assertThatThrownBy(() -> CoveringArray.of(BROKERS_X_METADATA_X_TLS_X_SASL_X_VERSION, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static <T> void assertCovers(List<List<T>> tuples, List<List<T>> domains, int strength) {
+        for (List<Integer> columns : columnCombinations(domains.size(), strength)) {
+            List<List<T>> combinationDomains = new ArrayList<>();
+            columns.forEach(column -> combinationDomains.add(domains.get(column)));
+            for (List<T> combination : new CartesianProduct<>(combinationDomains)) {
+                assertThat(tuples)
+                        .as("combination %s of columns %s", combination, columns)
+                        .anySatisfy(tuple -> {
+                            for (int i = 0; i < columns.size(); i++) {
+                                assertThat(tuple.get(columns.get(i))).isEqualTo(combination.get(i));
+                            }
+                        });
+            }
+        }
+    }
+
+    private static List<List<Integer>> columnCombinations(int columns, int count) {
+        List<List<Integer>> combinations = new ArrayList<>();
+        if (count == 0) {
+            combinations.add(List.of());
+            return combinations;
+        }
+        for (List<Integer> smaller : columnCombinations(columns, count - 1)) {
+            int start = smaller.isEmpty() ? 0 : smaller.get(smaller.size() - 1) + 1;
+            for (int column = start; column < columns; column++) {
+                List<Integer> combination = new ArrayList<>(smaller);
+                combination.add(column);
+                combinations.add(combination);
+            }
+        }
+        return combinations;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.junit5ext;
+
+import java.util.concurrent.ExecutionException;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.kroxylicious.testing.kafka.api.KafkaCluster;
+import io.kroxylicious.testing.kafka.common.BrokerCluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+@ExtendWith(KafkaClusterExtension.class)
+public class MultipleClusterFieldsExtensionTest extends AbstractExtensionTest {
+
+    @BrokerCluster(numBrokers = 1)
+    KafkaCluster first;
+
+    @BrokerCluster(numBrokers = 1)
+    KafkaCluster second;
+
+    @Name("third")
+    @BrokerCluster(numBrokers = 2)
+    KafkaCluster third;
+
+    @Test
+    public void eachFieldHasItsOwnStartedCluster() throws ExecutionException, InterruptedException {
+        assertNotEquals(first.getBootstrapServers(), second.getBootstrapServers());
+        assertNotEquals(first.getBootstrapServers(), third.getBootstrapServers());
+        assertNotEquals(second.getBootstrapServers(), third.getBootstrapServers());
+        assertEquals(1, describeCluster(first.getKafkaClientConfiguration()).nodes().get().size());
+        assertEquals(1, describeCluster(second.getKafkaClientConfiguration()).nodes().get().size());
+        assertEquals(2, describeCluster(third.getKafkaClientConfiguration()).nodes().get().size());
+    }
+
+    @Test
+    public void namedClusterParameter(@Name("third") Admin admin) throws ExecutionException, InterruptedException {
+        assertSameCluster(third, admin);
+    }
+}
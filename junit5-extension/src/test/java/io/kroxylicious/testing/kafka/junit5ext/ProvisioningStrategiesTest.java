@@ -0,0 +1,41 @@
+/*
+ * Copyright Kroxylicious Authors.
+ *
+ * Licensed under the Apache Software License version 2.0, available at http://www.apache.org/licenses/LICENSE-2.0
+ */
+package io.kroxylicious.testing.kafka.junit5ext;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionConfigurationException;
+
+import io.kroxylicious.testing.kafka.api.KafkaCluster;
+import io.kroxylicious.testing.kafka.invm.InVMProvisioningStrategy;
+
+import static io.kroxylicious.testing.kafka.common.ConstraintUtils.brokerCluster;
+import static io.kroxylicious.testing.kafka.common.ConstraintUtils.zooKeeperCluster;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProvisioningStrategiesTest {
+
+    interface UnsupportedCluster extends KafkaCluster {
+    }
+
+    @Test
+    void choosesSameStrategyForEquivalentDeclarations() {
+        var first = ProvisioningStrategies.best(List.of(brokerCluster(1), zooKeeperCluster()), KafkaCluster.class);
+        var second = ProvisioningStrategies.best(List.of(zooKeeperCluster(), brokerCluster(1)), KafkaCluster.class);
+
+        assertThat(first).isInstanceOf(InVMProvisioningStrategy.class);
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void failsForUnsupportedDeclarationType() {
+        assertThatThrownBy(() -> ProvisioningStrategies.best(List.of(), UnsupportedCluster.class))
+                .isInstanceOf(ExtensionConfigurationException.class)
+                .hasMessageContaining(UnsupportedCluster.class.getName());
+    }
+}
@@ -24,6 +24,7 @@ import io.kroxylicious.testing.kafka.invm.InVMKafkaCluster;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(KafkaClusterExtension.class)
 public class StaticFieldExtensionTest extends AbstractExtensionTest {
@@ -38,6 +39,10 @@ public class StaticFieldExtensionTest extends AbstractExtensionTest {
     @Order(3)
     static AdminClient staticAdminClient;
 
+    @Order(4)
+    @ClientConfig(name = "client.id", value = "tuned-admin")
+    static Admin tunedStaticAdmin;
+
     @Test
     public void testKafkaClusterStaticField()
             throws ExecutionException, InterruptedException {
@@ -57,6 +62,12 @@ public class StaticFieldExtensionTest extends AbstractExtensionTest {
         assertSameCluster(staticCluster, staticAdminClient);
     }
 
+    @Test
+    public void adminStaticFieldWithClientConfig() throws ExecutionException, InterruptedException {
+        assertTrue(tunedStaticAdmin.metrics().keySet().stream().anyMatch(metricName -> "tuned-admin".equals(metricName.tags().get("client-id"))));
+        assertSameCluster(staticCluster, tunedStaticAdmin);
+    }
+
     @Test
     public void adminParameter(Admin admin) throws ExecutionException, InterruptedException {
         assertSameCluster(staticCluster, admin);
@@ -82,11 +93,25 @@ public class StaticFieldExtensionTest extends AbstractExtensionTest {
         doProducer(producer, "hello", "world");
     }
 
+    @Test
+    public void producerParameterWithClientConfig(@ClientConfig(name = "client.id", value = "tuned-producer") @ClientConfig(name = "linger.ms", value = "50") Producer<String, String> producer)
+            throws ExecutionException, InterruptedException {
+        assertTrue(producer.metrics().keySet().stream().anyMatch(metricName -> "tuned-producer".equals(metricName.tags().get("client-id"))));
+        doProducer(producer, "hello", "world");
+    }
+
     @Test
     public void consumerParameter(Consumer<String, String> consumer) {
         doConsumer(consumer);
     }
 
+    @Test
+    public void consumerParameterWithClientConfig(@ClientConfig(name = "client.id", value = "tuned-consumer") @ClientConfig(name = "group.id", value = "tuned-group") Consumer<String, String> consumer) {
+        assertTrue(consumer.metrics().keySet().stream().anyMatch(metricName -> "tuned-consumer".equals(metricName.tags().get("client-id"))));
+        assertEquals("tuned-group", consumer.groupMetadata().groupId());
+        doConsumer(consumer);
+    }
+
     @Test
     public void kafkaConsumerParameter(KafkaConsumer<String, String> consumer) {
         doConsumer(consumer);
@@ -6,10 +6,12 @@
 package io.kroxylicious.testing.kafka.junit5ext;
 
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.kafka.clients.admin.Admin;
@@ -36,6 +38,7 @@ import static io.kroxylicious.testing.kafka.common.ConstraintUtils.version;
 import static io.kroxylicious.testing.kafka.common.ConstraintUtils.zooKeeperCluster;
 import static io.kroxylicious.testing.kafka.junit5ext.AbstractExtensionTest.assertSameCluster;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 @ExtendWith(KafkaClusterExtension.class)
 public class TemplateTest {
@@ -99,6 +102,45 @@ public class TemplateTest {
         }
     }
 
+    static Stream<BrokerConfig> partitions() {
+        return Stream.of(
+                brokerConfig("num.partitions", "1"),
+                brokerConfig("num.partitions", "2"));
+    }
+
+    static List<List<Object>> observedCoveringArray = new ArrayList<>();
+
+    @Nested
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    public class PairwiseCoverage {
+        @TestTemplate
+        public void testPairwiseCoverage(@DimensionMethodSource(value = "clusterSizes", clazz = TemplateTest.class) @DimensionMethodSource(value = "compression", clazz = TemplateTest.class) @DimensionMethodSource(value = "partitions", clazz = TemplateTest.class) @DimensionCoverage(strength = 2) KafkaCluster cluster,
+                                         Admin admin)
+                throws ExecutionException, InterruptedException {
+            int numBrokers = admin.describeCluster().nodes().get().size();
+            ConfigResource resource = new ConfigResource(ConfigResource.Type.BROKER, "0");
+            Config configs = admin.describeConfigs(List.of(resource)).all().get().get(resource);
+
+            observedCoveringArray.add(List.of(
+                    numBrokers,
+                    configs.get("compression.type").value(),
+                    configs.get("num.partitions").value()));
+        }
+
+        @AfterAll
+        public void afterAll() {
+            // Every pair of constraints from every pair of dimensions is covered, by half the tests of the cartesian product
+            assertEquals(4, observedCoveringArray.size());
+            for (int first = 0; first < 3; first++) {
+                for (int second = first + 1; second < 3; second++) {
+                    int a = first;
+                    int b = second;
+                    assertEquals(4, observedCoveringArray.stream().map(observed -> List.of(observed.get(a), observed.get(b))).distinct().count());
+                }
+            }
+        }
+    }
+
     static Stream<List<Annotation>> tuples() {
         return Stream.of(
                 List.of(brokerCluster(1), kraftCluster(1)),
@@ -145,6 +187,34 @@ public class TemplateTest {
         }
     }
 
+    static Stream<List<Annotation>> repeatedTuples() {
+        return Stream.of(
+                List.of(brokerCluster(1)),
+                List.of(brokerCluster(3)),
+                List.of(brokerCluster(1)),
+                List.of(brokerCluster(3)));
+    }
+
+    static List<List<Object>> observedClusters = new ArrayList<>();
+
+    @Nested
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    public class SharedClusters {
+
+        @TestTemplate
+        public void testInvocationsWithSameConstraintsShareCluster(@ConstraintsMethodSource(value = "repeatedTuples", clazz = TemplateTest.class) KafkaCluster cluster) {
+            observedClusters.add(List.of(cluster.getNumOfBrokers(), cluster));
+        }
+
+        @AfterAll
+        public void afterAll() {
+            assertEquals(4, observedClusters.size());
+            assertEquals(List.of(1, 1, 3, 3), observedClusters.stream().map(observed -> observed.get(0)).collect(Collectors.toList()));
+            assertSame(observedClusters.get(0).get(1), observedClusters.get(1).get(1));
+            assertSame(observedClusters.get(2).get(1), observedClusters.get(3).get(1));
+        }
+    }
+
     private static Stream<Version> versions() {
         return Stream.of(
                 version("latest"),